@@ -0,0 +1,92 @@
+package com.notificationservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result against the committed baseline
+ * <p>
+ * Prints the change in score and normalized allocation rate for every
+ * benchmark present in both files and exits with status 1 when any score
+ * regresses by more than the threshold (default 10%). A benchmark whose
+ * score error (99.9% confidence) in either file exceeds half the threshold
+ * is marked NOISY: its change is within run-to-run variation and needs a
+ * rerun with more iterations or forks before it means anything.
+ * <p>
+ * Usage: {@code BaselineComparator <baseline.json> <result.json> [thresholdPercent]}
+ */
+public final class BaselineComparator {
+
+    private static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <result.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(mapper.readTree(new File(args[0])));
+        Map<String, JsonNode> current = index(mapper.readTree(new File(args[1])));
+
+        boolean regressed = false;
+        System.out.printf("%-80s %14s %14s %9s %8s %12s%n", "Benchmark", "Baseline", "Current", "Change", "Error", "Alloc B/op");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            double oldScore = before.path("primaryMetric").path("score").asDouble();
+            double newScore = after.path("primaryMetric").path("score").asDouble();
+            double change = oldScore == 0 ? 0 : (newScore - oldScore) / oldScore * 100;
+
+            // Lower is better for time-based modes, higher is better for throughput
+            boolean worse = "thrpt".equals(after.path("mode").asText()) ? change < -threshold : change > threshold;
+            regressed |= worse;
+
+            double error = Math.max(relativeError(before), relativeError(after));
+            boolean noisy = error > threshold / 2;
+
+            double alloc = after.path("secondaryMetrics").path(ALLOC_RATE_NORM).path("score").asDouble(Double.NaN);
+            System.out.printf("%-80s %14.3f %14.3f %+8.1f%% %7.1f%% %12.1f%s%s%n",
+                    entry.getKey(), oldScore, newScore, change, error, alloc,
+                    worse ? "  REGRESSION" : "", noisy ? "  NOISY" : "");
+        }
+
+        System.exit(regressed ? 1 : 0);
+    }
+
+    /**
+     * Score error as a percentage of the score
+     */
+    private static double relativeError(JsonNode result) {
+        double score = result.path("primaryMetric").path("score").asDouble();
+        double error = result.path("primaryMetric").path("scoreError").asDouble();
+        return score == 0 || Double.isNaN(error) ? 0 : error / score * 100;
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(':').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            byKey.put(key.toString(), result);
+        }
+        return byKey;
+    }
+}
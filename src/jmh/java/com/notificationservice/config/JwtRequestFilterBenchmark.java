@@ -0,0 +1,99 @@
+package com.notificationservice.config;
+
+import com.notificationservice.repository.RevokedTokenRepository;
+import com.notificationservice.service.TokenRevocationService;
+import com.notificationservice.util.JwtTokenCache;
+import com.notificationservice.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per-request overhead of JwtRequestFilter for an authenticated request
+ * <p>
+ * The revocation check runs against an empty revocation list backed by a
+ * stubbed repository, so the filter takes the same path as for a live token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, time = 1)
+@Measurement(iterations = 20, time = 2)
+@Fork(5)
+public class JwtRequestFilterBenchmark {
+
+    private JwtRequestFilter filter;
+
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "benchmarkSecretKeyThatIsLongEnoughForHS256Algorithm");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3600L);
+        jwtUtil.init();
+
+        JwtTokenCache tokenCache = new JwtTokenCache();
+        ReflectionTestUtils.setField(tokenCache, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(tokenCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tokenCache, "maxSize", 10_000);
+        tokenCache.init();
+
+        TokenRevocationService revocationService = new TokenRevocationService();
+        ReflectionTestUtils.setField(revocationService, "revokedTokenRepository", Mockito.mock(RevokedTokenRepository.class));
+        ReflectionTestUtils.setField(revocationService, "jwtTokenCache", tokenCache);
+        ReflectionTestUtils.setField(revocationService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(revocationService, "expectedRevocations", 100_000L);
+        ReflectionTestUtils.setField(revocationService, "falsePositiveProbability", 0.001);
+        revocationService.init();
+
+        filter = new JwtRequestFilter();
+        ReflectionTestUtils.setField(filter, "jwtTokenCache", tokenCache);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", revocationService);
+
+        authorizationHeader = "Bearer " + jwtUtil.generateToken("benchmark-user");
+        if (doFilter() == null) {
+            throw new IllegalStateException("Benchmark request was not authenticated");
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object filterAuthenticatedRequest() throws Exception {
+        return doFilter();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object filterAuthenticatedRequestContended() throws Exception {
+        return doFilter();
+    }
+
+    private Object doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/notify/email");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
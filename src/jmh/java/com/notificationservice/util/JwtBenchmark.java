@@ -0,0 +1,94 @@
+package com.notificationservice.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for JWT generation and verification
+ * <p>
+ * Compares the legacy two-parse validation path with the verified-token
+ * cache, single-threaded and with four contending threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, time = 1)
+@Measurement(iterations = 20, time = 2)
+@Fork(5)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+
+    private JwtTokenCache tokenCache;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "benchmarkSecretKeyThatIsLongEnoughForHS256Algorithm");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3600L);
+        jwtUtil.init();
+
+        tokenCache = new JwtTokenCache();
+        ReflectionTestUtils.setField(tokenCache, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(tokenCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tokenCache, "maxSize", 10_000);
+        tokenCache.init();
+
+        token = jwtUtil.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String generateToken() {
+        return jwtUtil.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    @Threads(4)
+    @Warmup(iterations = 60, time = 1) // four signing threads share the CPU with the JIT, so it settles later
+    public String generateTokenContended() {
+        return jwtUtil.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean extractAndValidate() {
+        String username = jwtUtil.extractUsername(token);
+        return jwtUtil.validateToken(token, username);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean extractAndValidateContended() {
+        String username = jwtUtil.extractUsername(token);
+        return jwtUtil.validateToken(token, username);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String cachedVerification() {
+        return tokenCache.getVerifiedClaims(token).getSubject();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @Fork(10) // a fork whose cache lock holder keeps getting preempted runs up to twice as slow
+    public String cachedVerificationContended() {
+        return tokenCache.getVerifiedClaims(token).getSubject();
+    }
+}
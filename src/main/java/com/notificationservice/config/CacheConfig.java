@@ -0,0 +1,30 @@
+package com.notificationservice.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate second-level cache configuration
+ * <p>
+ * Enabled only when {@code user.cache.backend=hibernate}. The User entity and
+ * its natural id (username) are then cached in Caffeine via JCache, and
+ * UserCache resolves usernames through natural-id lookups instead of its
+ * in-process map.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "user.cache.backend", havingValue = "hibernate")
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer() {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", true);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.provider", CaffeineCachingProvider.class.getName());
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "create");
+        };
+    }
+}
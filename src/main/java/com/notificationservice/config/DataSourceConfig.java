@@ -0,0 +1,128 @@
+package com.notificationservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Primary/replica datasource routing
+ * <p>
+ * Enabled only when {@code notification.datasource.replica.enabled=true}.
+ * The primary pool is configured as usual under {@code spring.datasource};
+ * the replica gets its own pool under {@code notification.datasource.replica}
+ * (url, username, password, hikari.*). Read-only transactions - history
+ * queries, and Spring Data repository reads called outside a transaction -
+ * go to the replica while it is within
+ * {@code notification.datasource.replica.max-lag-ms} of the primary; see
+ * ReplicaRoutingDataSource. Code that must read its own writes does so in a
+ * read-write transaction.
+ */
+@Configuration
+@ConditionalOnProperty(name = "notification.datasource.replica.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("notification.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("notification.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${notification.datasource.replica.max-lag-ms:5000}") long maxLagMillis,
+            MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, maxLagMillis);
+        routing.checkLag();
+        Gauge.builder("datasource.replica.lag", routing, ReplicaRoutingDataSource::getLagMillis)
+                .description("Replica lag behind the primary; -1 when it could not be measured")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.available", routing, r -> r.isReplicaAvailable() ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(meterRegistry);
+        return routing;
+    }
+
+    /**
+     * The application's DataSource: connections are only taken from a pool once
+     * the transaction's read-only flag is known
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Release the connection after each transaction, so a session that spans
+     * several (open-in-view) picks primary or replica per transaction
+     */
+    @Bean
+    public HibernatePropertiesCustomizer connectionReleaseCustomizer() {
+        return properties -> properties.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    @Bean
+    public ReplicaLagChecker replicaLagChecker(ReplicaRoutingDataSource routingDataSource) {
+        return new ReplicaLagChecker(routingDataSource);
+    }
+
+    /**
+     * Re-measures replica lag every {@code notification.datasource.replica.lag-check-interval-ms}
+     */
+    public static class ReplicaLagChecker {
+
+        private final ReplicaRoutingDataSource routingDataSource;
+
+        public ReplicaLagChecker(ReplicaRoutingDataSource routingDataSource) {
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Scheduled(fixedDelayString = "${notification.datasource.replica.lag-check-interval-ms:1000}")
+        public void checkLag() {
+            routingDataSource.checkLag();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.notificationservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary
+ * <p>
+ * The decision is made when a connection is first used, so this must sit
+ * behind a LazyConnectionDataSourceProxy: the transaction manager asks for a
+ * connection before it marks the transaction read-only. Work outside a
+ * transaction (JdbcTemplate batch writes, the writer threads) always goes to
+ * the primary.
+ * <p>
+ * Replica lag is measured with the replica_heartbeat row: {@link #checkLag()}
+ * stamps it with the primary's clock on the primary and compares that with
+ * the value the replica has. While the lag exceeds {@code maxLagMillis}, or
+ * the replica cannot be queried, read-only transactions fall back to the
+ * primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final JdbcTemplate primaryJdbc;
+
+    private final JdbcTemplate replicaJdbc;
+
+    private final long maxLagMillis;
+
+    private volatile boolean replicaAvailable;
+
+    private volatile long lagMillis = -1;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long maxLagMillis) {
+        this.primaryJdbc = new JdbcTemplate(primary);
+        this.replicaJdbc = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentTarget();
+    }
+
+    /**
+     * Where a connection requested now would go
+     */
+    public Target currentTarget() {
+        return replicaAvailable && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    /**
+     * Write a heartbeat on the primary and measure how far behind the replica is
+     */
+    public void checkLag() {
+        try {
+            if (primaryJdbc.update("UPDATE replica_heartbeat SET beat_at = CURRENT_TIMESTAMP(3) WHERE id = 1") == 0) {
+                primaryJdbc.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, CURRENT_TIMESTAMP(3))");
+            }
+            Timestamp primaryBeat = primaryJdbc.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1",
+                    Timestamp.class);
+            Timestamp replicaBeat = replicaJdbc.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1",
+                    Timestamp.class);
+            lagMillis = Math.max(0, primaryBeat.getTime() - replicaBeat.getTime());
+        } catch (Exception e) {
+            lagMillis = -1;
+            if (replicaAvailable) {
+                logger.warn("Replica lag check failed, routing reads to the primary", e);
+            }
+        }
+
+        boolean available = lagMillis >= 0 && lagMillis <= maxLagMillis;
+        if (available != replicaAvailable) {
+            if (available) {
+                logger.info("Replica caught up ({} ms behind), routing read-only transactions to it", lagMillis);
+            } else if (lagMillis >= 0) {
+                logger.warn("Replica is {} ms behind, routing reads to the primary", lagMillis);
+            }
+        }
+        replicaAvailable = available;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    /**
+     * Last measured lag, or -1 if the replica could not be checked
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+}
@@ -1,11 +1,14 @@
 package com.notificationservice.config;
 
-import com.notificationservice.util.JwtUtil;
+import com.notificationservice.service.TokenRevocationService;
+import com.notificationservice.util.JwtTokenCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -41,6 +44,9 @@ public class SecurityConfig {
     @Autowired
     private JwtRequestFilter jwtRequestFilter;
 
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     /**
      * Configure security filter chain
      */
@@ -64,11 +70,11 @@ public class SecurityConfig {
     }
 
     /**
-     * Password encoder bean
+     * Password encoder bean; existing hashes with a different cost are rehashed on login
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     /**
@@ -100,7 +106,10 @@ class JwtAuthenticationEntryPoint implements org.springframework.security.web.Au
 class JwtRequestFilter extends OncePerRequestFilter {
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
@@ -109,25 +118,26 @@ class JwtRequestFilter extends OncePerRequestFilter {
         final String requestTokenHeader = request.getHeader("Authorization");
 
         String username = null;
-        String jwtToken = null;
 
-        // JWT Token is in the form "Bearer token"
+        // JWT Token is in the form "Bearer token"; the cache verifies signature and expiry once per token
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
+            String jwtToken = requestTokenHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwtToken);
+                Claims claims = jwtTokenCache.getVerifiedClaims(jwtToken);
+                if (tokenRevocationService.isRevoked(claims.getId())) {
+                    logger.warn("Rejected revoked JWT Token for user: " + claims.getSubject());
+                } else {
+                    username = claims.getSubject();
+                }
             } catch (Exception e) {
                 logger.error("Unable to get JWT Token", e);
             }
         }
 
-        // Validate token
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(jwtToken, username)) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(username, null, new ArrayList<>());
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(username, null, new ArrayList<>());
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         chain.doFilter(request, response);
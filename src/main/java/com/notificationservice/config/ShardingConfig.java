@@ -0,0 +1,141 @@
+package com.notificationservice.config;
+
+import com.notificationservice.repository.ShardedNotificationRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Notification sharding by recipient
+ * <p>
+ * Enabled only when {@code notification.sharding.enabled=true}. Each entry
+ * under {@code notification.sharding.shards} (url, username, password) is one
+ * shard with its own connection pool; the number of entries is the shard
+ * count. On startup the shard schema in {@code notification.sharding.locations}
+ * is migrated with Flyway on every shard. The primary datasource keeps every
+ * other table and allocates notification ids. See ShardedNotificationRepository.
+ * <p>
+ * Retention, export, stats backfill and the search index read every shard.
+ * The retry worker only claims rows on the primary, so startup fails unless
+ * {@code notification.retry.enabled=false}: failed sends on the shards would
+ * otherwise never be retried.
+ */
+@Configuration
+@ConditionalOnProperty(name = "notification.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardingConfig.class);
+
+    @Bean
+    @ConfigurationProperties("notification.sharding")
+    public ShardingProperties shardingProperties() {
+        return new ShardingProperties();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ShardedNotificationRepository shardedNotificationRepository(ShardingProperties properties,
+                                                                       JdbcTemplate jdbcTemplate,
+                                                                       TransactionTemplate transactionTemplate,
+                                                                       @Value("${notification.retry.enabled:true}") boolean retryEnabled) {
+        if (retryEnabled) {
+            throw new IllegalStateException("notification.sharding.enabled requires notification.retry.enabled=false: " +
+                    "the retry worker only reads notifications on the primary");
+        }
+        List<DataSourceProperties> shards = properties.getShards();
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("notification.sharding.enabled is set but no shards are configured");
+        }
+
+        List<DataSource> dataSources = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            HikariDataSource dataSource = shards.get(i).initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+            migrate(dataSource, properties.getLocations());
+            dataSources.add(dataSource);
+        }
+        logger.info("Notifications sharded by recipient over {} databases", dataSources.size());
+
+        int queryThreads = properties.getQueryThreads() > 0 ? properties.getQueryThreads() : dataSources.size();
+        return new ShardedNotificationRepository(dataSources, jdbcTemplate, transactionTemplate,
+                properties.getIdBlockSize(), queryThreads);
+    }
+
+    private static void migrate(DataSource dataSource, String[] locations) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations(locations)
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+    }
+
+    /**
+     * Settings under notification.sharding
+     */
+    public static class ShardingProperties {
+
+        private List<DataSourceProperties> shards = new ArrayList<>();
+
+        private int maximumPoolSize = 10; // per shard
+
+        private int queryThreads = 0; // scatter-gather threads; 0 means one per shard
+
+        private int idBlockSize = 100;
+
+        private String[] locations = {"classpath:db/shard"};
+
+        public List<DataSourceProperties> getShards() {
+            return shards;
+        }
+
+        public void setShards(List<DataSourceProperties> shards) {
+            this.shards = shards;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public int getQueryThreads() {
+            return queryThreads;
+        }
+
+        public void setQueryThreads(int queryThreads) {
+            this.queryThreads = queryThreads;
+        }
+
+        public int getIdBlockSize() {
+            return idBlockSize;
+        }
+
+        public void setIdBlockSize(int idBlockSize) {
+            this.idBlockSize = idBlockSize;
+        }
+
+        public String[] getLocations() {
+            return locations;
+        }
+
+        public void setLocations(String[] locations) {
+            this.locations = locations;
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.notificationservice.controller;
 
+import com.notificationservice.exception.TooManyRequestsException;
 import com.notificationservice.model.dto.AuthRequest;
 import com.notificationservice.model.dto.AuthResponse;
+import com.notificationservice.model.dto.RefreshRequest;
 import com.notificationservice.service.AuthService;
+import com.notificationservice.service.LoginRateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,6 +25,7 @@ import java.util.Map;
  * - User login/authentication
  * - Token generation
  * - User registration
+ * - Token refresh and revocation (logout)
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -30,20 +37,28 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
     /**
      * Authenticate user and generate JWT token
      * POST /api/auth/login
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody AuthRequest request) {
+    public ResponseEntity<?> login(@Valid @RequestBody AuthRequest request, HttpServletRequest httpRequest) {
         try {
             logger.info("Login attempt for username: {}", request.getUsername());
 
+            loginRateLimiter.checkAttempt(request.getUsername(), httpRequest.getRemoteAddr());
+
             AuthResponse response = authService.authenticate(request);
 
             logger.info("Login successful for username: {}", request.getUsername());
             return ResponseEntity.ok(response);
 
+        } catch (TooManyRequestsException e) {
+            logger.warn("Login rejected for username: {}: {}", request.getUsername(), e.getMessage());
+            return tooManyRequests(e);
         } catch (Exception e) {
             logger.error("Login failed for username: {}", request.getUsername(), e);
             return ResponseEntity.badRequest().body(Map.of(
@@ -58,15 +73,20 @@ public class AuthController {
      * POST /api/auth/register
      */
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody AuthRequest request) {
+    public ResponseEntity<?> register(@Valid @RequestBody AuthRequest request, HttpServletRequest httpRequest) {
         try {
             logger.info("Registration attempt for username: {}", request.getUsername());
 
+            loginRateLimiter.checkAttempt(request.getUsername(), httpRequest.getRemoteAddr());
+
             AuthResponse response = authService.register(request);
 
             logger.info("Registration successful for username: {}", request.getUsername());
             return ResponseEntity.ok(response);
 
+        } catch (TooManyRequestsException e) {
+            logger.warn("Registration rejected for username: {}: {}", request.getUsername(), e.getMessage());
+            return tooManyRequests(e);
         } catch (Exception e) {
             logger.error("Registration failed for username: {}", request.getUsername(), e);
             return ResponseEntity.badRequest().body(Map.of(
@@ -76,6 +96,27 @@ public class AuthController {
         }
     }
 
+    /**
+     * Exchange a refresh token for a new access token
+     * POST /api/auth/refresh
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest request) {
+        try {
+            AuthResponse response = authService.refresh(request);
+
+            logger.info("Token refreshed for username: {}", response.getUsername());
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Token refresh failed", e);
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
     /**
      * Validate JWT token
      * POST /api/auth/validate
@@ -108,4 +149,47 @@ public class AuthController {
             ));
         }
     }
+
+    /**
+     * Revoke JWT token (logout)
+     * POST /api/auth/logout
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader("Authorization") String authHeader,
+                                    @RequestBody(required = false) RefreshRequest request) {
+        try {
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                return ResponseEntity.badRequest().body(Map.of(
+                        "status", "error",
+                        "message", "Bearer token required"
+                ));
+            }
+
+            authService.logout(authHeader.substring(7), request != null ? request.getRefreshToken() : null);
+
+            return ResponseEntity.ok(Map.of(
+                    "status", "success",
+                    "message", "Token revoked"
+            ));
+
+        } catch (Exception e) {
+            logger.error("Logout failed", e);
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Build a 429 response carrying a Retry-After header
+     */
+    private ResponseEntity<?> tooManyRequests(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of(
+                        "status", "error",
+                        "message", e.getMessage()
+                ));
+    }
 }
\ No newline at end of file
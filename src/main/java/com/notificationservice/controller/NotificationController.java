@@ -3,6 +3,7 @@ package com.notificationservice.controller;
 import com.notificationservice.model.dto.EmailNotificationRequest;
 import com.notificationservice.model.dto.QueueNotificationRequest;
 import com.notificationservice.model.dto.RealtimeNotificationRequest;
+import com.notificationservice.service.IdempotencyService;
 import com.notificationservice.service.NotificationService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -20,6 +21,10 @@ import java.util.Map;
  * - Email notifications
  * - Real-time WebSocket notifications
  * - Queue-based notifications
+ * <p>
+ * Each send endpoint accepts an optional Idempotency-Key header; a retried
+ * request with the same key gets the original response back instead of
+ * sending again (see IdempotencyService).
  */
 @RestController
 @RequestMapping("/api/notify")
@@ -31,29 +36,35 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     /**
      * Send email notification
      * POST /api/notify/email
      */
     @PostMapping("/email")
-    public ResponseEntity<?> sendEmailNotification(@Valid @RequestBody EmailNotificationRequest request) {
-        try {
-            logger.info("Received email notification request for: {}", request.getTo());
-
-            notificationService.sendEmailNotification(request);
-
-            return ResponseEntity.ok(Map.of(
-                    "status", "success",
-                    "message", "Email notification sent successfully",
-                    "recipient", request.getTo()
-            ));
-        } catch (Exception e) {
-            logger.error("Failed to send email notification", e);
-            return ResponseEntity.badRequest().body(Map.of(
-                    "status", "error",
-                    "message", "Failed to send email notification: " + e.getMessage()
-            ));
-        }
+    public ResponseEntity<?> sendEmailNotification(@Valid @RequestBody EmailNotificationRequest request,
+                                                   @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("EMAIL", idempotencyKey, request, () -> {
+            try {
+                logger.info("Received email notification request for: {}", request.getTo());
+
+                notificationService.sendEmailNotification(request);
+
+                return ResponseEntity.ok(Map.of(
+                        "status", "success",
+                        "message", "Email notification accepted for delivery",
+                        "recipient", request.getTo()
+                ));
+            } catch (Exception e) {
+                logger.error("Failed to send email notification", e);
+                return ResponseEntity.badRequest().body(Map.of(
+                        "status", "error",
+                        "message", "Failed to send email notification: " + e.getMessage()
+                ));
+            }
+        });
     }
 
     /**
@@ -61,24 +72,27 @@ public class NotificationController {
      * POST /api/notify/realtime
      */
     @PostMapping("/realtime")
-    public ResponseEntity<?> sendRealtimeNotification(@Valid @RequestBody RealtimeNotificationRequest request) {
-        try {
-            logger.info("Received real-time notification request for topic: {}", request.getTopic());
-
-            notificationService.sendRealtimeNotification(request);
-
-            return ResponseEntity.ok(Map.of(
-                    "status", "success",
-                    "message", "Real-time notification sent successfully",
-                    "topic", request.getTopic()
-            ));
-        } catch (Exception e) {
-            logger.error("Failed to send real-time notification", e);
-            return ResponseEntity.badRequest().body(Map.of(
-                    "status", "error",
-                    "message", "Failed to send real-time notification: " + e.getMessage()
-            ));
-        }
+    public ResponseEntity<?> sendRealtimeNotification(@Valid @RequestBody RealtimeNotificationRequest request,
+                                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("REALTIME", idempotencyKey, request, () -> {
+            try {
+                logger.info("Received real-time notification request for topic: {}", request.getTopic());
+
+                notificationService.sendRealtimeNotification(request);
+
+                return ResponseEntity.ok(Map.of(
+                        "status", "success",
+                        "message", "Real-time notification sent successfully",
+                        "topic", request.getTopic()
+                ));
+            } catch (Exception e) {
+                logger.error("Failed to send real-time notification", e);
+                return ResponseEntity.badRequest().body(Map.of(
+                        "status", "error",
+                        "message", "Failed to send real-time notification: " + e.getMessage()
+                ));
+            }
+        });
     }
 
     /**
@@ -86,24 +100,27 @@ public class NotificationController {
      * POST /api/notify/queue
      */
     @PostMapping("/queue")
-    public ResponseEntity<?> sendQueueNotification(@Valid @RequestBody QueueNotificationRequest request) {
-        try {
-            logger.info("Received queue notification request of type: {}", request.getType());
-
-            notificationService.sendQueueNotification(request);
-
-            return ResponseEntity.ok(Map.of(
-                    "status", "success",
-                    "message", "Queue notification sent successfully",
-                    "type", request.getType()
-            ));
-        } catch (Exception e) {
-            logger.error("Failed to send queue notification", e);
-            return ResponseEntity.badRequest().body(Map.of(
-                    "status", "error",
-                    "message", "Failed to send queue notification: " + e.getMessage()
-            ));
-        }
+    public ResponseEntity<?> sendQueueNotification(@Valid @RequestBody QueueNotificationRequest request,
+                                                   @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("QUEUE", idempotencyKey, request, () -> {
+            try {
+                logger.info("Received queue notification request of type: {}", request.getType());
+
+                notificationService.sendQueueNotification(request);
+
+                return ResponseEntity.ok(Map.of(
+                        "status", "success",
+                        "message", "Queue notification sent successfully",
+                        "type", request.getType()
+                ));
+            } catch (Exception e) {
+                logger.error("Failed to send queue notification", e);
+                return ResponseEntity.badRequest().body(Map.of(
+                        "status", "error",
+                        "message", "Failed to send queue notification: " + e.getMessage()
+                ));
+            }
+        });
     }
 
     /**
@@ -0,0 +1,175 @@
+package com.notificationservice.controller;
+
+import com.notificationservice.model.dto.NotificationPage;
+import com.notificationservice.model.dto.NotificationSummary;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.service.NotificationExportService;
+import com.notificationservice.service.NotificationHistoryService;
+import com.notificationservice.service.NotificationSearchIndex;
+import com.notificationservice.service.RecentNotificationCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for notification history
+ * <p>
+ * Provides endpoints for:
+ * - Keyset-paginated history, optionally filtered by recipient or status
+ * - A recipient's most recent notifications, served from memory
+ * - Streaming NDJSON or CSV export of the full history
+ * - Phrase search over notification content
+ * <p>
+ * Pages hold summaries (no content or error message) unless
+ * includeContent=true is passed.
+ */
+@RestController
+@RequestMapping("/api/notifications")
+@CrossOrigin(origins = "*")
+public class NotificationHistoryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationHistoryController.class);
+
+    @Autowired
+    private NotificationHistoryService notificationHistoryService;
+
+    @Autowired
+    private RecentNotificationCache recentNotificationCache;
+
+    @Autowired
+    private NotificationExportService notificationExportService;
+
+    @Autowired
+    private NotificationSearchIndex notificationSearchIndex;
+
+    /**
+     * List notifications, newest first
+     * GET /api/notifications?recipient=&status=&cursor=&limit=&includeContent=
+     */
+    @GetMapping
+    public ResponseEntity<?> listNotifications(@RequestParam(required = false) String recipient,
+                                               @RequestParam(required = false) String status,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(defaultValue = "false") boolean includeContent) {
+        try {
+            NotificationPage<?> page = includeContent
+                    ? notificationHistoryService.findPage(recipient, status, cursor, limit)
+                    : notificationHistoryService.findSummaryPage(recipient, status, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            logger.error("Failed to list notifications", e);
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "status", "error",
+                    "message", "Failed to list notifications: " + e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * A recipient's most recent notifications, newest first
+     * GET /api/notifications/recent?recipient=&limit=
+     */
+    @GetMapping("/recent")
+    public ResponseEntity<?> recentNotifications(@RequestParam String recipient,
+                                                 @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<NotificationSummary> recent = recentNotificationCache.recent(recipient, limit);
+            return ResponseEntity.ok(recent);
+        } catch (Exception e) {
+            logger.error("Failed to load recent notifications for {}", recipient, e);
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "status", "error",
+                    "message", "Failed to load recent notifications: " + e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Export notifications, oldest first, streamed as they are read
+     * GET /api/notifications/export?format=ndjson|csv&recipient=&status=&from=&to=&includeContent=
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportNotifications(@RequestParam(defaultValue = "ndjson") String format,
+                                                 @RequestParam(required = false) String recipient,
+                                                 @RequestParam(required = false) String status,
+                                                 @RequestParam(required = false)
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                 @RequestParam(required = false)
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                 @RequestParam(defaultValue = "false") boolean includeContent) {
+        NotificationExportService.Format exportFormat;
+        try {
+            exportFormat = NotificationExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", "Unsupported export format: " + format
+            ));
+        }
+        NotificationStatus statusFilter;
+        try {
+            statusFilter = status != null && !status.isBlank() ? NotificationStatus.parse(status) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        }
+
+        StreamingResponseBody body = out -> notificationExportService.export(
+                exportFormat, recipient, statusFilter, from, to, includeContent, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"notifications." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Notifications whose content contains the phrase, newest first
+     * GET /api/notifications/search?q=&recipient=&type=&from=&to=&limit=
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchNotifications(@RequestParam String q,
+                                                 @RequestParam(required = false) String recipient,
+                                                 @RequestParam(required = false) String type,
+                                                 @RequestParam(required = false)
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                 @RequestParam(required = false)
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                 @RequestParam(defaultValue = "50") int limit) {
+        try {
+            List<Notification> results = notificationSearchIndex.search(q, recipient, type, from, to,
+                    Math.max(1, Math.min(limit, 500)));
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            logger.error("Failed to search notifications", e);
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "status", "error",
+                    "message", "Failed to search notifications: " + e.getMessage()
+            ));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.notificationservice.controller;
+
+import com.notificationservice.service.NotificationStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST Controller for notification delivery statistics
+ * <p>
+ * Provides endpoints for:
+ * - Live totals per type and status
+ * - Counts over a time range, answered from hourly rollups
+ */
+@RestController
+@RequestMapping("/api/notifications/stats")
+@CrossOrigin(origins = "*")
+public class NotificationStatsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStatsController.class);
+
+    @Autowired
+    private NotificationStatsService notificationStatsService;
+
+    /**
+     * Live totals as type -> status -> count
+     * GET /api/notifications/stats
+     */
+    @GetMapping
+    public ResponseEntity<?> getTotals() {
+        return ResponseEntity.ok(Map.of(
+                "totals", notificationStatsService.totals(),
+                "timestamp", System.currentTimeMillis()
+        ));
+    }
+
+    /**
+     * Count a type's notifications in a time range (rounded out to whole hours)
+     * GET /api/notifications/stats/count?type=&status=&start=&end=
+     */
+    @GetMapping("/count")
+    public ResponseEntity<?> countInRange(@RequestParam String type,
+                                          @RequestParam(required = false) String status,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        try {
+            if (!start.isBefore(end)) {
+                return ResponseEntity.badRequest().body(Map.of(
+                        "status", "error",
+                        "message", "start must be before end"
+                ));
+            }
+
+            long count = notificationStatsService.countByTypeAndRange(type, status, start, end);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("type", type);
+            response.put("status", status);
+            response.put("start", start);
+            response.put("end", end);
+            response.put("count", count);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Failed to count notifications", e);
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "status", "error",
+                    "message", "Failed to count notifications: " + e.getMessage()
+            ));
+        }
+    }
+}
@@ -9,6 +9,7 @@ public class AuthResponse {
     private String type;
     private String username;
     private String message;
+    private String refreshToken;
 
     // Constructors
     public AuthResponse() {
@@ -21,6 +22,11 @@ public class AuthResponse {
         this.message = message;
     }
 
+    public AuthResponse(String token, String type, String username, String message, String refreshToken) {
+        this(token, type, username, message);
+        this.refreshToken = refreshToken;
+    }
+
     // Getters and Setters
     public String getToken() {
         return token;
@@ -54,6 +60,14 @@ public class AuthResponse {
         this.message = message;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     @Override
     public String toString() {
         return "AuthResponse{" +
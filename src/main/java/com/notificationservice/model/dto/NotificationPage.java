@@ -0,0 +1,60 @@
+package com.notificationservice.model.dto;
+
+import java.util.List;
+
+/**
+ * DTO for one page of notification history
+ * <p>
+ * nextCursor is opaque; pass it back as the cursor parameter to fetch the
+ * next (older) page. It is null on the last page. Items are either
+ * NotificationSummary rows or full Notification records with details.
+ */
+public class NotificationPage<T> {
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Constructors
+    public NotificationPage() {
+    }
+
+    public NotificationPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationPage{" +
+                "items=" + (items != null ? items.size() : 0) +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
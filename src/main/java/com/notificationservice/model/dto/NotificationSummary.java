@@ -0,0 +1,96 @@
+package com.notificationservice.model.dto;
+
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO projection of the narrow notification columns
+ * <p>
+ * Built directly by JPQL constructor expressions, so status and listing
+ * queries select only these columns and never load a managed entity.
+ */
+public class NotificationSummary {
+
+    private Long id;
+    private NotificationType type;
+    private String recipient;
+    private NotificationStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+
+    // Constructors
+    public NotificationSummary() {
+    }
+
+    public NotificationSummary(Long id, NotificationType type, String recipient, NotificationStatus status,
+                               LocalDateTime createdAt, LocalDateTime sentAt) {
+        this.id = id;
+        this.type = type;
+        this.recipient = recipient;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.sentAt = sentAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public NotificationType getType() {
+        return type;
+    }
+
+    public void setType(NotificationType type) {
+        this.type = type;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public NotificationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(NotificationStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationSummary{" +
+                "id=" + id +
+                ", type='" + type + '\'' +
+                ", recipient='" + recipient + '\'' +
+                ", status='" + status + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -1,5 +1,6 @@
 package com.notificationservice.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
@@ -9,26 +10,42 @@ import java.time.LocalDateTime;
  * <p>
  * This entity stores information about all notifications sent
  * through the system for auditing and tracking purposes.
+ * <p>
+ * The mapped columns are the narrow "hot" row that status and listing
+ * queries scan. Content, content hash and error message live in
+ * notification_details (see NotificationDetail) and are only populated on
+ * an instance once NotificationDetailService has attached them.
  */
 @Entity
 @Table(name = "notifications")
 public class Notification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "notification_id")
+    @TableGenerator(name = "notification_id", table = "id_generators",
+            pkColumnName = "gen_name", valueColumnName = "gen_value",
+            pkColumnValue = "notifications", allocationSize = 100)
+    private Long id; // pooled ids so inserts can be JDBC-batched
 
-    @Column(nullable = false, length = 50)
-    private String type; // EMAIL, WEBSOCKET, QUEUE
+    @Convert(converter = NotificationTypeConverter.class)
+    @Column(nullable = false)
+    private NotificationType type; // TINYINT code
 
     @Column(nullable = false)
     private String recipient;
 
-    @Column(columnDefinition = "TEXT")
-    private String content;
+    @Transient
+    private String content; // inline content; rows written through the content store leave this null
+
+    @Transient
+    private String contentHash; // key into notification_contents
+
+    @Transient
+    private String loadedContent; // resolved from the content store on read
 
-    @Column(nullable = false, length = 20)
-    private String status; // SENT, FAILED, PENDING, QUEUED
+    @Convert(converter = NotificationStatusConverter.class)
+    @Column(nullable = false)
+    private NotificationStatus status; // TINYINT code
 
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
@@ -36,15 +53,24 @@ public class Notification {
     @Column(name = "sent_at")
     private LocalDateTime sentAt;
 
-    @Column(name = "error_message")
+    @Column(nullable = false)
+    private Integer attempts = 0; // delivery attempts so far
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt; // when the retry worker may pick this up; null when no retry is due
+
+    @Transient
     private String errorMessage;
 
+    @Transient
+    private String payload; // serialized request, kept so failed deliveries can be re-dispatched
+
     // Constructors
     public Notification() {
         this.createdAt = LocalDateTime.now();
     }
 
-    public Notification(String type, String recipient, String content, String status) {
+    public Notification(NotificationType type, String recipient, String content, NotificationStatus status) {
         this();
         this.type = type;
         this.recipient = recipient;
@@ -61,11 +87,11 @@ public class Notification {
         this.id = id;
     }
 
-    public String getType() {
+    public NotificationType getType() {
         return type;
     }
 
-    public void setType(String type) {
+    public void setType(NotificationType type) {
         this.type = type;
     }
 
@@ -78,18 +104,38 @@ public class Notification {
     }
 
     public String getContent() {
-        return content;
+        return content != null ? content : loadedContent;
     }
 
     public void setContent(String content) {
         this.content = content;
     }
 
-    public String getStatus() {
+    /**
+     * Content stored inline in this row, as opposed to in the content store
+     */
+    @JsonIgnore
+    public String getInlineContent() {
+        return content;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public void setLoadedContent(String loadedContent) {
+        this.loadedContent = loadedContent;
+    }
+
+    public NotificationStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(NotificationStatus status) {
         this.status = status;
     }
 
@@ -109,6 +155,22 @@ public class Notification {
         this.sentAt = sentAt;
     }
 
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -117,13 +179,22 @@ public class Notification {
         this.errorMessage = errorMessage;
     }
 
+    @JsonIgnore
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
     @Override
     public String toString() {
         return "Notification{" +
                 "id=" + id +
-                ", type='" + type + '\'' +
+                ", type=" + type +
                 ", recipient='" + recipient + '\'' +
-                ", status='" + status + '\'' +
+                ", status=" + status +
                 ", createdAt=" + createdAt +
                 '}';
     }
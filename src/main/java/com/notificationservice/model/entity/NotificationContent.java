@@ -0,0 +1,97 @@
+package com.notificationservice.model.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification Content Entity for deduplicated content storage
+ * <p>
+ * Keyed by the SHA-256 of the text, so a body sent to many recipients is
+ * stored once. Bodies above a size threshold are stored deflate-compressed.
+ */
+@Entity
+@Table(name = "notification_contents")
+public class NotificationContent {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private Boolean compressed = false;
+
+    @Column(name = "original_size", nullable = false)
+    private Integer originalSize;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] data;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public NotificationContent() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public NotificationContent(String contentHash, Boolean compressed, Integer originalSize, byte[] data) {
+        this();
+        this.contentHash = contentHash;
+        this.compressed = compressed;
+        this.originalSize = originalSize;
+        this.data = data;
+    }
+
+    // Getters and Setters
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Boolean getCompressed() {
+        return compressed;
+    }
+
+    public void setCompressed(Boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    public Integer getOriginalSize() {
+        return originalSize;
+    }
+
+    public void setOriginalSize(Integer originalSize) {
+        this.originalSize = originalSize;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationContent{" +
+                "contentHash='" + contentHash + '\'' +
+                ", compressed=" + compressed +
+                ", originalSize=" + originalSize +
+                ", storedSize=" + (data != null ? data.length : 0) +
+                '}';
+    }
+}
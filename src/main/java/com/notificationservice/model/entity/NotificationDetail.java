@@ -0,0 +1,124 @@
+package com.notificationservice.model.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Notification Detail Entity for the wide, rarely read notification columns
+ * <p>
+ * Shares its key with the notifications row. Only written for notifications
+ * that have content, an error or a retry payload, and only read when a
+ * caller asks for them, so status and listing scans never touch these bytes.
+ */
+@Entity
+@Table(name = "notification_details")
+public class NotificationDetail implements Persistable<Long> {
+
+    @Id
+    @Column(name = "notification_id")
+    private Long notificationId;
+
+    @Column(columnDefinition = "TEXT")
+    private String content; // inline content; null when stored in notification_contents
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload; // serialized request for retries
+
+    @Transient
+    private boolean isNew = true; // the id is assigned, so tell Spring Data to persist without a SELECT
+
+    // Constructors
+    public NotificationDetail() {
+    }
+
+    public NotificationDetail(Notification notification) {
+        this.notificationId = notification.getId();
+        this.content = notification.getInlineContent();
+        this.contentHash = notification.getContentHash();
+        this.errorMessage = notification.getErrorMessage();
+        this.payload = notification.getPayload();
+    }
+
+    /**
+     * Whether a notification has anything to store here
+     */
+    public static boolean hasDetail(Notification notification) {
+        return notification.getInlineContent() != null
+                || notification.getContentHash() != null
+                || notification.getErrorMessage() != null
+                || notification.getPayload() != null;
+    }
+
+    /**
+     * Copy the detail columns onto the notification
+     */
+    public void applyTo(Notification notification) {
+        notification.setContent(content);
+        notification.setContentHash(contentHash);
+        notification.setErrorMessage(errorMessage);
+        notification.setPayload(payload);
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    // Getters and Setters
+    @Override
+    public Long getId() {
+        return notificationId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public Long getNotificationId() {
+        return notificationId;
+    }
+
+    public void setNotificationId(Long notificationId) {
+        this.notificationId = notificationId;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+}
@@ -0,0 +1,96 @@
+package com.notificationservice.model.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hourly rollup of notification counts per type and status
+ * <p>
+ * Rows are upserted by NotificationStatsService; range counts are answered
+ * from these rows instead of scanning the notifications table.
+ */
+@Entity
+@Table(name = "notification_stats_hourly",
+        uniqueConstraints = @UniqueConstraint(name = "uk_notification_stats_hourly",
+                columnNames = {"hour_start", "type", "status"}))
+public class NotificationStatsHourly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hour_start", nullable = false)
+    private LocalDateTime hourStart;
+
+    @Column(nullable = false, length = 50)
+    private String type;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "notification_count", nullable = false)
+    private Long notificationCount = 0L;
+
+    // Constructors
+    public NotificationStatsHourly() {
+    }
+
+    public NotificationStatsHourly(LocalDateTime hourStart, String type, String status, Long notificationCount) {
+        this.hourStart = hourStart;
+        this.type = type;
+        this.status = status;
+        this.notificationCount = notificationCount;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getHourStart() {
+        return hourStart;
+    }
+
+    public void setHourStart(LocalDateTime hourStart) {
+        this.hourStart = hourStart;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getNotificationCount() {
+        return notificationCount;
+    }
+
+    public void setNotificationCount(Long notificationCount) {
+        this.notificationCount = notificationCount;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationStatsHourly{" +
+                "hourStart=" + hourStart +
+                ", type='" + type + '\'' +
+                ", status='" + status + '\'' +
+                ", notificationCount=" + notificationCount +
+                '}';
+    }
+}
@@ -0,0 +1,61 @@
+package com.notificationservice.model.entity;
+
+import java.util.Locale;
+
+/**
+ * Delivery status of a notification
+ * <p>
+ * Stored in notifications.status as the one-byte {@link #getCode() code}
+ * (see NotificationStatusConverter), so codes must never be reused or
+ * renumbered; add new statuses with new codes.
+ */
+public enum NotificationStatus {
+
+    SENT(1),
+    FAILED(2),
+    PENDING(3),
+    QUEUED(4);
+
+    private static final NotificationStatus[] BY_CODE = new NotificationStatus[5];
+
+    static {
+        for (NotificationStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final byte code;
+
+    NotificationStatus(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Status stored under {@code code}
+     *
+     * @throws IllegalArgumentException if no status has that code
+     */
+    public static NotificationStatus fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Unknown notification status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Status named {@code name}, ignoring case
+     *
+     * @throws IllegalArgumentException if there is no such status
+     */
+    public static NotificationStatus parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown notification status: " + name);
+        }
+    }
+}
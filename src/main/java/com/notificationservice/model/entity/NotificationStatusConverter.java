@@ -0,0 +1,21 @@
+package com.notificationservice.model.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Persists NotificationStatus as its TINYINT code
+ */
+@Converter(autoApply = true)
+public class NotificationStatusConverter implements AttributeConverter<NotificationStatus, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(NotificationStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+
+    @Override
+    public NotificationStatus convertToEntityAttribute(Byte code) {
+        return code != null ? NotificationStatus.fromCode(code) : null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.notificationservice.model.entity;
+
+import java.util.Locale;
+
+/**
+ * Channel a notification was sent through
+ * <p>
+ * Stored in notifications.type as the one-byte {@link #getCode() code}
+ * (see NotificationTypeConverter), so codes must never be reused or
+ * renumbered; add new types with new codes.
+ */
+public enum NotificationType {
+
+    EMAIL(1),
+    WEBSOCKET(2),
+    QUEUE(3);
+
+    private static final NotificationType[] BY_CODE = new NotificationType[4];
+
+    static {
+        for (NotificationType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+
+    NotificationType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Type stored under {@code code}
+     *
+     * @throws IllegalArgumentException if no type has that code
+     */
+    public static NotificationType fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Unknown notification type code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Type named {@code name}, ignoring case
+     *
+     * @throws IllegalArgumentException if there is no such type
+     */
+    public static NotificationType parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown notification type: " + name);
+        }
+    }
+}
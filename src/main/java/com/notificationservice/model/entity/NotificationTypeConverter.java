@@ -0,0 +1,21 @@
+package com.notificationservice.model.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Persists NotificationType as its TINYINT code
+ */
+@Converter(autoApply = true)
+public class NotificationTypeConverter implements AttributeConverter<NotificationType, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(NotificationType type) {
+        return type != null ? type.getCode() : null;
+    }
+
+    @Override
+    public NotificationType convertToEntityAttribute(Byte code) {
+        return code != null ? NotificationType.fromCode(code) : null;
+    }
+}
@@ -0,0 +1,118 @@
+package com.notificationservice.model.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox Message Entity for messages waiting to be published to RabbitMQ
+ * <p>
+ * Written in the same transaction as the notification it belongs to, and
+ * removed by the outbox relay once the broker has confirmed it. Messages
+ * that cannot be published are parked rather than retried forever.
+ */
+@Entity
+@Table(name = "notification_outbox")
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "notification_id", nullable = false)
+    private Long notificationId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload; // JSON of the QueueNotificationRequest
+
+    @Column(nullable = false)
+    private Integer attempts = 0; // publish attempts that were not confirmed
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt; // lease or backoff; null means due now
+
+    @Column(name = "parked_at")
+    private LocalDateTime parkedAt; // set once the relay gives up on the message
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public OutboxMessage() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public OutboxMessage(Long notificationId, String payload) {
+        this();
+        this.notificationId = notificationId;
+        this.payload = payload;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getNotificationId() {
+        return notificationId;
+    }
+
+    public void setNotificationId(Long notificationId) {
+        this.notificationId = notificationId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public LocalDateTime getParkedAt() {
+        return parkedAt;
+    }
+
+    public void setParkedAt(LocalDateTime parkedAt) {
+        this.parkedAt = parkedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,12 @@
+package com.notificationservice.repository;
+
+import com.notificationservice.model.entity.NotificationContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for NotificationContent entity
+ */
+@Repository
+public interface NotificationContentRepository extends JpaRepository<NotificationContent, String> {
+}
@@ -0,0 +1,12 @@
+package com.notificationservice.repository;
+
+import com.notificationservice.model.entity.NotificationDetail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for NotificationDetail entity
+ */
+@Repository
+public interface NotificationDetailRepository extends JpaRepository<NotificationDetail, Long> {
+}
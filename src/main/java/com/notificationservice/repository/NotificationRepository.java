@@ -1,24 +1,46 @@
 package com.notificationservice.repository;
 
+import com.notificationservice.model.dto.NotificationSummary;
 import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Notification entity
+ * <p>
+ * The List-returning finders load every match into memory; history reads
+ * should use the keyset Slice methods (newest first, ordered by created_at
+ * then id) or the Stream methods, which must be consumed inside a transaction.
+ * Status and listing queries that only need the narrow columns should use
+ * the NotificationSummary projections, which skip entity loading entirely.
  */
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
+    /** JDBC fetch size for streaming queries */
+    String STREAM_FETCH_SIZE = "500";
+
+    /** Constructor expression selecting the summary columns */
+    String SUMMARY = "SELECT new com.notificationservice.model.dto.NotificationSummary(" +
+            "n.id, n.type, n.recipient, n.status, n.createdAt, n.sentAt) FROM Notification n ";
+
     /**
      * Find notifications by type
      */
-    List<Notification> findByType(String type);
+    List<Notification> findByType(NotificationType type);
 
     /**
      * Find notifications by recipient
@@ -28,12 +50,12 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     /**
      * Find notifications by status
      */
-    List<Notification> findByStatus(String status);
+    List<Notification> findByStatus(NotificationStatus status);
 
     /**
      * Find notifications by type and status
      */
-    List<Notification> findByTypeAndStatus(String type, String status);
+    List<Notification> findByTypeAndStatus(NotificationType type, NotificationStatus status);
 
     /**
      * Find notifications created between dates
@@ -43,8 +65,14 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     /**
      * Find failed notifications
      */
-    @Query("SELECT n FROM Notification n WHERE n.status = 'FAILED'")
-    List<Notification> findFailedNotifications();
+    @Query(SUMMARY + "WHERE n.status = com.notificationservice.model.entity.NotificationStatus.FAILED")
+    List<NotificationSummary> findFailedNotifications();
+
+    /**
+     * Find summaries of notifications by status
+     */
+    @Query(SUMMARY + "WHERE n.status = :status")
+    List<NotificationSummary> findSummariesByStatus(@Param("status") NotificationStatus status);
 
     /**
      * Find recent notifications by recipient
@@ -52,16 +80,121 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT n FROM Notification n WHERE n.recipient = :recipient ORDER BY n.createdAt DESC")
     List<Notification> findRecentByRecipient(@Param("recipient") String recipient);
 
+    /**
+     * Find summaries of a recipient's newest notifications
+     */
+    @Query(SUMMARY + "WHERE n.recipient = :recipient ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationSummary> findRecentSummariesByRecipient(@Param("recipient") String recipient, Pageable pageable);
+
     /**
      * Count notifications by status
      */
-    long countByStatus(String status);
+    long countByStatus(NotificationStatus status);
 
     /**
      * Count notifications by type and date range
      */
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.type = :type AND n.createdAt BETWEEN :start AND :end")
-    long countByTypeAndDateRange(@Param("type") String type,
+    long countByTypeAndDateRange(@Param("type") NotificationType type,
                                  @Param("start") LocalDateTime start,
                                  @Param("end") LocalDateTime end);
-}
\ No newline at end of file
+
+    /**
+     * Keyset page of all notifications older than the (createdAt, id) cursor
+     */
+    @Query("SELECT n FROM Notification n WHERE n.createdAt < :createdAt " +
+            "OR (n.createdAt = :createdAt AND n.id < :id) ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<Notification> findPageBefore(@Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    /**
+     * Keyset page of a recipient's notifications older than the (createdAt, id) cursor
+     */
+    @Query("SELECT n FROM Notification n WHERE n.recipient = :recipient AND (n.createdAt < :createdAt " +
+            "OR (n.createdAt = :createdAt AND n.id < :id)) ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<Notification> findPageByRecipientBefore(@Param("recipient") String recipient,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+
+    /**
+     * Keyset page of notifications with a status older than the (createdAt, id) cursor
+     */
+    @Query("SELECT n FROM Notification n WHERE n.status = :status AND (n.createdAt < :createdAt " +
+            "OR (n.createdAt = :createdAt AND n.id < :id)) ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<Notification> findPageByStatusBefore(@Param("status") NotificationStatus status,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+
+    /**
+     * Keyset page of all notification summaries older than the (createdAt, id) cursor
+     */
+    @Query(SUMMARY + "WHERE n.createdAt < :createdAt " +
+            "OR (n.createdAt = :createdAt AND n.id < :id) ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<NotificationSummary> findSummaryPageBefore(@Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+
+    /**
+     * Keyset page of a recipient's notification summaries older than the (createdAt, id) cursor
+     */
+    @Query(SUMMARY + "WHERE n.recipient = :recipient AND (n.createdAt < :createdAt " +
+            "OR (n.createdAt = :createdAt AND n.id < :id)) ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<NotificationSummary> findSummaryPageByRecipientBefore(@Param("recipient") String recipient,
+                                                                @Param("createdAt") LocalDateTime createdAt,
+                                                                @Param("id") Long id,
+                                                                Pageable pageable);
+
+    /**
+     * Keyset page of notification summaries with a status older than the (createdAt, id) cursor
+     */
+    @Query(SUMMARY + "WHERE n.status = :status AND (n.createdAt < :createdAt " +
+            "OR (n.createdAt = :createdAt AND n.id < :id)) ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<NotificationSummary> findSummaryPageByStatusBefore(@Param("status") NotificationStatus status,
+                                                             @Param("createdAt") LocalDateTime createdAt,
+                                                             @Param("id") Long id,
+                                                             Pageable pageable);
+
+    /**
+     * Stream a recipient's notifications, newest first
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT n FROM Notification n WHERE n.recipient = :recipient ORDER BY n.createdAt DESC, n.id DESC")
+    Stream<Notification> streamByRecipient(@Param("recipient") String recipient);
+
+    /**
+     * Stream notifications with a status, newest first
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT n FROM Notification n WHERE n.status = :status ORDER BY n.createdAt DESC, n.id DESC")
+    Stream<Notification> streamByStatus(@Param("status") NotificationStatus status);
+
+    /**
+     * Stream notifications of a type, newest first
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT n FROM Notification n WHERE n.type = :type ORDER BY n.createdAt DESC, n.id DESC")
+    Stream<Notification> streamByType(@Param("type") NotificationType type);
+
+    /**
+     * Stream notifications created in [start, end), oldest first
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT n FROM Notification n WHERE n.createdAt >= :start AND n.createdAt < :end ORDER BY n.createdAt, n.id")
+    Stream<Notification> streamByCreatedAtBetween(@Param("start") LocalDateTime start,
+                                                  @Param("end") LocalDateTime end);
+}
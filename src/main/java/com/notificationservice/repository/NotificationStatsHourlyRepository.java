@@ -0,0 +1,34 @@
+package com.notificationservice.repository;
+
+import com.notificationservice.model.entity.NotificationStatsHourly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for NotificationStatsHourly entity
+ */
+@Repository
+public interface NotificationStatsHourlyRepository extends JpaRepository<NotificationStatsHourly, Long> {
+
+    /**
+     * All-time totals per type and status as [type, status, count] rows
+     */
+    @Query("SELECT s.type, s.status, SUM(s.notificationCount) FROM NotificationStatsHourly s GROUP BY s.type, s.status")
+    List<Object[]> sumByTypeAndStatus();
+
+    /**
+     * Sum of a type's counts over hours in [start, end), optionally restricted to one status
+     */
+    @Query("SELECT COALESCE(SUM(s.notificationCount), 0) FROM NotificationStatsHourly s " +
+            "WHERE s.type = :type AND (:status IS NULL OR s.status = :status) " +
+            "AND s.hourStart >= :start AND s.hourStart < :end")
+    long sumByTypeAndHourRange(@Param("type") String type,
+                               @Param("status") String status,
+                               @Param("start") LocalDateTime start,
+                               @Param("end") LocalDateTime end);
+}
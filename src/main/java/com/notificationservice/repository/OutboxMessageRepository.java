@@ -0,0 +1,12 @@
+package com.notificationservice.repository;
+
+import com.notificationservice.model.entity.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for OutboxMessage entity
+ */
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+}
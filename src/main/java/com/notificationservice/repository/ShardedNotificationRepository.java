@@ -0,0 +1,463 @@
+package com.notificationservice.repository;
+
+import com.notificationservice.model.dto.NotificationSummary;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationDetail;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Notifications and their details spread over several databases by recipient
+ * <p>
+ * A recipient's rows all live on shard {@code hash(recipient) mod N}, so
+ * inserts, recipient history and the recent list touch a single database, and
+ * a notification and its detail row are written in one local transaction.
+ * Queries without a recipient (status or time ranges, counts, lookups by id)
+ * run on every shard in parallel and are merged: keyset pages are merged
+ * newest first by (created_at, id), counts are summed.
+ * <p>
+ * Ids are handed out in blocks from id_generators on the primary database, so
+ * they are unique across shards. The hash is fixed, so changing the number of
+ * shards means moving existing rows.
+ * <p>
+ * Writes to different shards are separate transactions, so a batch can be
+ * committed on some shards and not others. Inserts are idempotent: ids are
+ * assigned once and kept, and rows whose id is already on the shard are
+ * skipped, so a failed batch can be retried as is without duplicating rows.
+ */
+public class ShardedNotificationRepository {
+
+    /** id_generators row the shard ids are allocated from */
+    static final String ID_GENERATOR = "notification_shards";
+
+    private static final String COLUMNS =
+            "SELECT id, type, recipient, status, created_at, sent_at, attempts, next_attempt_at FROM notifications ";
+
+    private static final String BEFORE = "(created_at < ? OR (created_at = ? AND id < ?))";
+
+    private static final String NEWEST_FIRST = " ORDER BY created_at DESC, id DESC LIMIT ?";
+
+    private static final String INSERT_SQL = "INSERT INTO notifications " +
+            "(id, type, recipient, status, created_at, sent_at, attempts, next_attempt_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_DETAIL_SQL = "INSERT INTO notification_details " +
+            "(notification_id, content, content_hash, error_message, payload) VALUES (?, ?, ?, ?, ?)";
+
+    private static final Comparator<Notification> NEWEST_FIRST_ORDER = Comparator
+            .comparing(Notification::getCreatedAt)
+            .thenComparing(Notification::getId)
+            .reversed();
+
+    private static final RowMapper<Notification> ROW_MAPPER = (rs, rowNum) -> {
+        Notification notification = new Notification();
+        notification.setId(rs.getLong("id"));
+        notification.setType(NotificationType.fromCode(rs.getInt("type")));
+        notification.setRecipient(rs.getString("recipient"));
+        notification.setStatus(NotificationStatus.fromCode(rs.getInt("status")));
+        notification.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        Timestamp sentAt = rs.getTimestamp("sent_at");
+        notification.setSentAt(sentAt != null ? sentAt.toLocalDateTime() : null);
+        notification.setAttempts(rs.getInt("attempts"));
+        Timestamp nextAttemptAt = rs.getTimestamp("next_attempt_at");
+        notification.setNextAttemptAt(nextAttemptAt != null ? nextAttemptAt.toLocalDateTime() : null);
+        return notification;
+    };
+
+    private final List<DataSource> dataSources;
+
+    private final List<JdbcTemplate> shards;
+
+    private final List<TransactionTemplate> shardTransactions;
+
+    private final JdbcTemplate primaryJdbc;
+
+    private final TransactionTemplate primaryTransaction;
+
+    private final int idBlockSize;
+
+    private final ExecutorService queryExecutor;
+
+    private long nextId;
+
+    private long lastReservedId;
+
+    public ShardedNotificationRepository(List<DataSource> shardDataSources, JdbcTemplate primaryJdbc,
+                                         TransactionTemplate primaryTransaction, int idBlockSize, int queryThreads) {
+        if (shardDataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard datasource is required");
+        }
+        this.dataSources = List.copyOf(shardDataSources);
+        this.shards = new ArrayList<>(shardDataSources.size());
+        this.shardTransactions = new ArrayList<>(shardDataSources.size());
+        for (DataSource dataSource : shardDataSources) {
+            shards.add(new JdbcTemplate(dataSource));
+            shardTransactions.add(new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        }
+        this.primaryJdbc = primaryJdbc;
+        this.primaryTransaction = primaryTransaction;
+        this.idBlockSize = idBlockSize;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.queryExecutor = Executors.newFixedThreadPool(Math.max(1, queryThreads), runnable -> {
+            Thread thread = new Thread(runnable, "shard-query-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Every shard's datasource, in shard order, for jobs that stream or clean up all notifications
+     */
+    public List<DataSource> getDataSources() {
+        return dataSources;
+    }
+
+    /**
+     * Every shard's JdbcTemplate, in shard order
+     */
+    public List<JdbcTemplate> getJdbcTemplates() {
+        return Collections.unmodifiableList(shards);
+    }
+
+    /**
+     * Shard holding a recipient's notifications
+     */
+    public int shardFor(String recipient) {
+        int h = recipient.hashCode();
+        // murmur3 finalizer, so recipients that differ in one character still spread over the shards
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, shards.size());
+    }
+
+    /**
+     * Give notifications without an id one from the block reserved on the primary
+     */
+    public void assignIds(Collection<Notification> notifications) {
+        for (Notification notification : notifications) {
+            if (notification.getId() == null) {
+                notification.setId(nextId());
+            }
+        }
+    }
+
+    /**
+     * Assign ids and insert new notifications and their details, one transaction per shard
+     * <p>
+     * Notifications already on their shard (from an earlier, partly committed
+     * call) are skipped, so retrying with the same objects is safe.
+     */
+    public List<Notification> saveAll(List<Notification> notifications) {
+        assignIds(notifications);
+        forEachShard(notifications, (jdbc, group) -> {
+            Set<Long> existing = new HashSet<>(jdbc.queryForList(
+                    "SELECT id FROM notifications WHERE id IN (" + placeholders(group.size()) + ")", Long.class,
+                    group.stream().map(Notification::getId).toArray()));
+            List<Object[]> rows = new ArrayList<>(group.size());
+            List<Object[]> detailRows = new ArrayList<>();
+            for (Notification notification : group) {
+                if (existing.contains(notification.getId())) {
+                    continue;
+                }
+                rows.add(new Object[]{
+                        notification.getId(),
+                        notification.getType().getCode(),
+                        notification.getRecipient(),
+                        notification.getStatus().getCode(),
+                        Timestamp.valueOf(notification.getCreatedAt()),
+                        timestamp(notification.getSentAt()),
+                        notification.getAttempts(),
+                        timestamp(notification.getNextAttemptAt())});
+                if (NotificationDetail.hasDetail(notification)) {
+                    detailRows.add(new Object[]{
+                            notification.getId(),
+                            notification.getInlineContent(),
+                            notification.getContentHash(),
+                            notification.getErrorMessage(),
+                            notification.getPayload()});
+                }
+            }
+            if (!rows.isEmpty()) {
+                jdbc.batchUpdate(INSERT_SQL, rows);
+            }
+            if (!detailRows.isEmpty()) {
+                jdbc.batchUpdate(INSERT_DETAIL_SQL, detailRows);
+            }
+            return null;
+        });
+        return notifications;
+    }
+
+    /**
+     * Which of the given content hashes a detail row on any shard still refers to
+     */
+    public Set<String> findReferencedContentHashes(Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return Set.of();
+        }
+        String sql = "SELECT DISTINCT content_hash FROM notification_details WHERE content_hash IN (" +
+                placeholders(hashes.size()) + ")";
+        Object[] args = hashes.toArray();
+        Set<String> referenced = new HashSet<>();
+        scatter(jdbc -> jdbc.queryForList(sql, String.class, args)).forEach(referenced::addAll);
+        return referenced;
+    }
+
+    /**
+     * Run {@code work} on each shard for the notifications it holds, inside that shard's transaction
+     *
+     * @return the int[] results of each shard's work, re-ordered to match {@code notifications};
+     * a shard whose work returns null contributes nothing
+     */
+    public int[] forEachShard(List<Notification> notifications,
+                              BiFunction<JdbcTemplate, List<Notification>, int[]> work) {
+        Map<Integer, List<Integer>> positionsByShard = new HashMap<>();
+        for (int i = 0; i < notifications.size(); i++) {
+            positionsByShard.computeIfAbsent(shardFor(notifications.get(i).getRecipient()), s -> new ArrayList<>()).add(i);
+        }
+
+        int[] results = new int[notifications.size()];
+        for (Map.Entry<Integer, List<Integer>> entry : positionsByShard.entrySet()) {
+            List<Integer> positions = entry.getValue();
+            List<Notification> group = new ArrayList<>(positions.size());
+            for (int position : positions) {
+                group.add(notifications.get(position));
+            }
+            JdbcTemplate jdbc = shards.get(entry.getKey());
+            int[] counts = shardTransactions.get(entry.getKey()).execute(status -> work.apply(jdbc, group));
+            if (counts != null) {
+                for (int i = 0; i < positions.size(); i++) {
+                    results[positions.get(i)] = counts[i];
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Load notifications by id from every shard
+     */
+    public List<Notification> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = COLUMNS + "WHERE id IN (" + placeholders(ids.size()) + ")";
+        Object[] args = ids.toArray();
+        List<Notification> found = new ArrayList<>(ids.size());
+        scatter(jdbc -> jdbc.query(sql, ROW_MAPPER, args)).forEach(found::addAll);
+        return found;
+    }
+
+    /**
+     * Copy each notification's detail columns onto it, reading only the shards involved
+     */
+    public void attachDetails(List<Notification> notifications) {
+        forEachShard(notifications, (jdbc, group) -> {
+            Map<Long, Notification> byId = new HashMap<>();
+            for (Notification notification : group) {
+                byId.put(notification.getId(), notification);
+            }
+            jdbc.query("SELECT notification_id, content, content_hash, error_message, payload FROM notification_details " +
+                    "WHERE notification_id IN (" + placeholders(byId.size()) + ")", rs -> {
+                Notification notification = byId.get(rs.getLong("notification_id"));
+                notification.setContent(rs.getString("content"));
+                notification.setContentHash(rs.getString("content_hash"));
+                notification.setErrorMessage(rs.getString("error_message"));
+                notification.setPayload(rs.getString("payload"));
+            }, byId.keySet().toArray());
+            return null;
+        });
+    }
+
+    /**
+     * A recipient's newest notifications, from its shard
+     */
+    public List<NotificationSummary> findRecentSummariesByRecipient(String recipient, int limit) {
+        return shards.get(shardFor(recipient))
+                .query(COLUMNS + "WHERE recipient = ?" + NEWEST_FIRST, ROW_MAPPER, recipient, limit)
+                .stream()
+                .map(ShardedNotificationRepository::summarize)
+                .toList();
+    }
+
+    /**
+     * Keyset page of a recipient's notifications older than the (createdAt, id) cursor, from its shard
+     */
+    public Slice<Notification> findPageByRecipientBefore(String recipient, LocalDateTime createdAt, Long id,
+                                                         Pageable pageable) {
+        Timestamp cursor = Timestamp.valueOf(createdAt);
+        List<Notification> rows = shards.get(shardFor(recipient)).query(
+                COLUMNS + "WHERE recipient = ? AND " + BEFORE + NEWEST_FIRST, ROW_MAPPER,
+                recipient, cursor, cursor, id, pageable.getPageSize() + 1);
+        return slice(rows, pageable);
+    }
+
+    /**
+     * Keyset page of notifications with a status older than the (createdAt, id) cursor, merged from every shard
+     */
+    public Slice<Notification> findPageByStatusBefore(NotificationStatus status, LocalDateTime createdAt, Long id,
+                                                      Pageable pageable) {
+        Timestamp cursor = Timestamp.valueOf(createdAt);
+        return mergedSlice(jdbc -> jdbc.query(COLUMNS + "WHERE status = ? AND " + BEFORE + NEWEST_FIRST, ROW_MAPPER,
+                status.getCode(), cursor, cursor, id, pageable.getPageSize() + 1), pageable);
+    }
+
+    /**
+     * Keyset page of all notifications older than the (createdAt, id) cursor, merged from every shard
+     */
+    public Slice<Notification> findPageBefore(LocalDateTime createdAt, Long id, Pageable pageable) {
+        Timestamp cursor = Timestamp.valueOf(createdAt);
+        return mergedSlice(jdbc -> jdbc.query(COLUMNS + "WHERE " + BEFORE + NEWEST_FIRST, ROW_MAPPER,
+                cursor, cursor, id, pageable.getPageSize() + 1), pageable);
+    }
+
+    /**
+     * Count notifications by status on every shard
+     */
+    public long countByStatus(NotificationStatus status) {
+        return sum(jdbc -> jdbc.queryForObject("SELECT COUNT(*) FROM notifications WHERE status = ?", Long.class,
+                status.getCode()));
+    }
+
+    /**
+     * Count notifications by type and date range on every shard
+     */
+    public long countByTypeAndDateRange(NotificationType type, LocalDateTime start, LocalDateTime end) {
+        return sum(jdbc -> jdbc.queryForObject(
+                "SELECT COUNT(*) FROM notifications WHERE type = ? AND created_at BETWEEN ? AND ?",
+                Long.class, type.getCode(), Timestamp.valueOf(start), Timestamp.valueOf(end)));
+    }
+
+    /**
+     * Stop the scatter-gather threads
+     */
+    public void shutdown() {
+        queryExecutor.shutdownNow();
+    }
+
+    private Slice<Notification> mergedSlice(Function<JdbcTemplate, List<Notification>> query, Pageable pageable) {
+        List<Notification> merged = new ArrayList<>();
+        scatter(query).forEach(merged::addAll);
+        merged.sort(NEWEST_FIRST_ORDER);
+        return slice(merged, pageable);
+    }
+
+    private long sum(Function<JdbcTemplate, Long> query) {
+        long total = 0;
+        for (Long count : scatter(query)) {
+            total += count != null ? count : 0;
+        }
+        return total;
+    }
+
+    /**
+     * Run a query on every shard in parallel and collect the results in shard order
+     */
+    private <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+        if (shards.size() == 1) {
+            return List.of(query.apply(shards.get(0)));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (JdbcTemplate jdbc : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(jdbc), queryExecutor));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * Next id from the block reserved on the primary, reserving a new block when it runs out
+     */
+    private synchronized long nextId() {
+        if (nextId == 0 || nextId > lastReservedId) {
+            long reservedUpTo = primaryTransaction.execute(status -> reserveIds());
+            nextId = reservedUpTo - idBlockSize + 1;
+            lastReservedId = reservedUpTo;
+        }
+        return nextId++;
+    }
+
+    private long reserveIds() {
+        List<Long> current = primaryJdbc.queryForList(
+                "SELECT gen_value FROM id_generators WHERE gen_name = ? FOR UPDATE", Long.class, ID_GENERATOR);
+        if (current.isEmpty()) {
+            try {
+                // Start above the ids the unsharded table has handed out
+                primaryJdbc.update("INSERT INTO id_generators (gen_name, gen_value) SELECT ?, COALESCE(MAX(gen_value), 0) " +
+                        "FROM id_generators WHERE gen_name = 'notifications'", ID_GENERATOR);
+            } catch (DuplicateKeyException e) {
+                // another node created it first
+            }
+            current = primaryJdbc.queryForList(
+                    "SELECT gen_value FROM id_generators WHERE gen_name = ? FOR UPDATE", Long.class, ID_GENERATOR);
+        }
+        long reservedUpTo = current.get(0) + idBlockSize;
+        primaryJdbc.update("UPDATE id_generators SET gen_value = ? WHERE gen_name = ?", reservedUpTo, ID_GENERATOR);
+        return reservedUpTo;
+    }
+
+    private static Slice<Notification> slice(List<Notification> rows, Pageable pageable) {
+        int size = pageable.getPageSize();
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? new ArrayList<>(rows.subList(0, size)) : rows, pageable, hasNext);
+    }
+
+    private static NotificationSummary summarize(Notification notification) {
+        return new NotificationSummary(notification.getId(), notification.getType(), notification.getRecipient(),
+                notification.getStatus(), notification.getCreatedAt(), notification.getSentAt());
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
@@ -2,9 +2,11 @@ package com.notificationservice.repository;
 
 import com.notificationservice.model.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -55,4 +57,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Count active users
      */
     long countByActiveTrue();
+
+    /**
+     * Replace only the password hash, leaving every other column as stored
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
\ No newline at end of file
@@ -1,14 +1,17 @@
 package com.notificationservice.service;
 
+import com.notificationservice.exception.TooManyRequestsException;
 import com.notificationservice.model.dto.AuthRequest;
 import com.notificationservice.model.dto.AuthResponse;
+import com.notificationservice.model.dto.RefreshRequest;
 import com.notificationservice.model.entity.User;
 import com.notificationservice.repository.UserRepository;
+import com.notificationservice.util.JwtTokenCache;
 import com.notificationservice.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -21,6 +24,7 @@ import java.util.Optional;
  * - User authentication and JWT token generation
  * - User registration
  * - Token validation
+ * - Refresh-token exchange and logout
  */
 @Service
 public class AuthService {
@@ -31,11 +35,29 @@ public class AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private LastLoginWriteBehind lastLoginWriteBehind;
+
+    @Autowired
+    private UserExistenceFilter userExistenceFilter;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     /**
      * Authenticate user and generate JWT token
      */
@@ -43,28 +65,38 @@ public class AuthService {
         try {
             logger.info("Authenticating user: {}", request.getUsername());
 
-            // Find user by username
-            Optional<User> userOpt = userRepository.findByUsername(request.getUsername());
+            // Find user by username (read-through cache)
+            Optional<User> userOpt = userCache.findByUsername(request.getUsername());
             if (userOpt.isEmpty()) {
                 throw new RuntimeException("User not found");
             }
 
             User user = userOpt.get();
 
-            // Verify password
-            if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+            // Verify password on the bounded hashing executor
+            if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
                 throw new RuntimeException("Invalid credentials");
             }
 
-            // Update last login
-            user.setLastLogin(LocalDateTime.now());
-            userRepository.save(user);
+            // Transparently rehash when the configured BCrypt cost has changed. The user may be the
+            // shared cached instance, so only the password column is written and the entry dropped.
+            if (passwordHashingService.needsRehash(user.getPassword())) {
+                logger.info("Rehashing password for user: {}", user.getUsername());
+                userRepository.updatePassword(user.getId(), passwordHashingService.encode(request.getPassword()));
+                userCache.invalidate(user.getUsername());
+            }
 
-            // Generate JWT token
+            // Update last login (coalesced and flushed in batches)
+            lastLoginWriteBehind.record(user.getId(), LocalDateTime.now());
+
+            // Generate JWT token and the refresh token that renews it
             String token = jwtUtil.generateToken(user.getUsername());
+            String refreshToken = refreshTokenService.issue(user.getUsername());
 
-            return new AuthResponse(token, "Bearer", user.getUsername(), "Authentication successful");
+            return new AuthResponse(token, "Bearer", user.getUsername(), "Authentication successful", refreshToken);
 
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Authentication failed for user: {}", request.getUsername(), e);
             throw new RuntimeException("Authentication failed: " + e.getMessage());
@@ -78,28 +110,33 @@ public class AuthService {
         try {
             logger.info("Registering new user: {}", request.getUsername());
 
-            // Check if user already exists
-            if (userRepository.findByUsername(request.getUsername()).isPresent()) {
+            // Check if user already exists (the existence filter skips the lookup for new names)
+            if (userExistenceFilter.usernameExists(request.getUsername())) {
                 throw new RuntimeException("Username already exists");
             }
 
             // Create new user
             User user = new User();
             user.setUsername(request.getUsername());
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
             user.setEmail(request.getEmail());
             user.setCreatedAt(LocalDateTime.now());
             user.setActive(true);
 
             userRepository.save(user);
+            userCache.invalidate(user.getUsername());
+            userExistenceFilter.add(user.getUsername(), user.getEmail());
 
-            // Generate JWT token
+            // Generate JWT token and the refresh token that renews it
             String token = jwtUtil.generateToken(user.getUsername());
+            String refreshToken = refreshTokenService.issue(user.getUsername());
 
             logger.info("User registered successfully: {}", request.getUsername());
 
-            return new AuthResponse(token, "Bearer", user.getUsername(), "Registration successful");
+            return new AuthResponse(token, "Bearer", user.getUsername(), "Registration successful", refreshToken);
 
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Registration failed for user: {}", request.getUsername(), e);
             throw new RuntimeException("Registration failed: " + e.getMessage());
@@ -111,18 +148,57 @@ public class AuthService {
      */
     public boolean validateToken(String token) {
         try {
-            String username = jwtUtil.extractUsername(token);
-            return jwtUtil.validateToken(token, username);
+            Claims claims = jwtTokenCache.getVerifiedClaims(token);
+            return claims.getSubject() != null && !tokenRevocationService.isRevoked(claims.getId());
         } catch (Exception e) {
             logger.error("Token validation failed", e);
             return false;
         }
     }
 
+    /**
+     * Exchange a refresh token for a new access token and a rotated refresh token
+     */
+    public AuthResponse refresh(RefreshRequest request) {
+        try {
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+
+            // Deactivated users cannot renew; the cached lookup keeps this off the database
+            Optional<User> userOpt = userCache.findByUsername(rotation.username());
+            if (userOpt.isEmpty() || !Boolean.TRUE.equals(userOpt.get().getActive())) {
+                refreshTokenService.revoke(rotation.refreshToken());
+                throw new RuntimeException("User not found or inactive");
+            }
+
+            String token = jwtUtil.generateToken(rotation.username());
+
+            return new AuthResponse(token, "Bearer", rotation.username(), "Token refreshed", rotation.refreshToken());
+
+        } catch (Exception e) {
+            logger.error("Token refresh failed", e);
+            throw new RuntimeException("Token refresh failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Revoke a token before its natural expiry (logout), along with its refresh token if given
+     */
+    public void logout(String token, String refreshToken) {
+        try {
+            tokenRevocationService.revoke(token);
+            if (refreshToken != null && !refreshToken.isBlank()) {
+                refreshTokenService.revoke(refreshToken);
+            }
+        } catch (Exception e) {
+            logger.error("Logout failed", e);
+            throw new RuntimeException("Logout failed: " + e.getMessage());
+        }
+    }
+
     /**
      * Get user by username
      */
     public Optional<User> getUserByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return userCache.findByUsername(username);
     }
 }
\ No newline at end of file
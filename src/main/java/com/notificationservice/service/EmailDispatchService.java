@@ -0,0 +1,275 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.model.dto.EmailNotificationRequest;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.repository.ShardedNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous email dispatch with status write-back
+ * <p>
+ * A notification email is first recorded as PENDING (with its request kept
+ * for retries), then handed to a dedicated, bounded pool of sender threads,
+ * so SMTP never runs on a request thread. Each outcome is queued and applied
+ * in JDBC batches every {@code notification.email.status-flush-interval-ms}:
+ * SENT with sent_at, or FAILED with error_message and a retry scheduled by
+ * NotificationRetryService.
+ * <p>
+ * If the pool's queue is full the email is recorded FAILED straight away and
+ * left to the retry worker. A PENDING row whose outcome never arrives (the
+ * node died) becomes due for the retry worker after
+ * {@code notification.email.pending-timeout-ms}.
+ */
+@Service
+public class EmailDispatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailDispatchService.class);
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private NotificationDetailService detailService;
+
+    @Autowired
+    private NotificationContentStore contentStore;
+
+    @Autowired
+    private NotificationStatsService statsService;
+
+    @Autowired
+    private RecentNotificationCache recentCache;
+
+    @Autowired
+    private NotificationSearchIndex searchIndex;
+
+    @Autowired
+    private NotificationRetryService retryService;
+
+    @Autowired(required = false)
+    private ShardedNotificationRepository shardedRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.email.threads:4}")
+    private int threads;
+
+    @Value("${notification.email.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${notification.email.status-batch-size:500}")
+    private int statusBatchSize;
+
+    @Value("${notification.email.pending-timeout-ms:600000}")
+    private long pendingTimeoutMs;
+
+    @Value("${notification.email.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    /** Notifications whose send finished, waiting for their status update */
+    private final Queue<Notification> completed = new ConcurrentLinkedQueue<>();
+
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "email-sender-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        rejected = Counter.builder("email.dispatch.rejected")
+                .description("Emails recorded as failed because the sender queue was full")
+                .register(meterRegistry);
+        Gauge.builder("email.dispatch.queue.depth", executor, e -> e.getQueue().size())
+                .description("Emails waiting for a sender thread")
+                .register(meterRegistry);
+        Gauge.builder("email.dispatch.status.pending", completed, Queue::size)
+                .description("Email outcomes waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a PENDING email notification and queue it for sending
+     */
+    public Notification submit(EmailNotificationRequest request) {
+        Notification notification = new Notification(NotificationType.EMAIL, request.getTo(), request.getSubject(),
+                NotificationStatus.PENDING);
+        try {
+            notification.setPayload(objectMapper.writeValueAsString(request));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize email notification", e);
+        }
+        // Picked up by the retry worker only if no outcome is written before then
+        notification.setNextAttemptAt(LocalDateTime.now().plus(pendingTimeoutMs, ChronoUnit.MILLIS));
+
+        contentStore.externalize(List.of(notification));
+        detailService.save(notification);
+        statsService.record(notification);
+        recentCache.record(notification);
+        searchIndex.add(notification);
+
+        try {
+            executor.execute(() -> deliver(notification, request));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Email sender queue full, leaving notification {} to the retry worker", notification.getId());
+            fail(notification, request, new RuntimeException("Email sender queue full", e));
+        }
+        return notification;
+    }
+
+    /**
+     * Write queued outcomes in batches
+     */
+    @Scheduled(fixedDelayString = "${notification.email.status-flush-interval-ms:200}")
+    public void flushStatusUpdates() {
+        List<Notification> batch = new ArrayList<>(statusBatchSize);
+        Notification next;
+        while ((next = completed.poll()) != null) {
+            batch.add(next);
+            if (batch.size() >= statusBatchSize) {
+                if (!writeStatuses(batch)) {
+                    return;
+                }
+                batch = new ArrayList<>(statusBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeStatuses(batch);
+        }
+    }
+
+    public int pending() {
+        return executor.getQueue().size() + executor.getActiveCount() + completed.size();
+    }
+
+    /**
+     * Let queued sends finish, then write their outcomes
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("{} emails still queued at shutdown; they stay PENDING for the retry worker",
+                        executor.getQueue().size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushStatusUpdates();
+    }
+
+    private void deliver(Notification notification, EmailNotificationRequest request) {
+        try {
+            emailService.sendEmail(request);
+            notification.setStatus(NotificationStatus.SENT);
+            notification.setSentAt(LocalDateTime.now());
+            notification.setAttempts(1);
+            notification.setNextAttemptAt(null);
+            completed.add(notification);
+        } catch (Exception e) {
+            fail(notification, request, e);
+        }
+    }
+
+    private void fail(Notification notification, EmailNotificationRequest request, Exception error) {
+        notification.setStatus(NotificationStatus.FAILED);
+        retryService.schedule(notification, request, error);
+        completed.add(notification);
+    }
+
+    private boolean writeStatuses(List<Notification> batch) {
+        int[] updated;
+        try {
+            if (shardedRepository != null) {
+                updated = shardedRepository.forEachShard(batch, this::applyStatuses);
+            } else {
+                updated = transactionTemplate.execute(status -> applyStatuses(jdbcTemplate, batch));
+            }
+        } catch (Exception e) {
+            logger.error("Failed to write {} email statuses, will retry", batch.size(), e);
+            completed.addAll(batch);
+            return false;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            if (updated == null || updated[i] != 0) {
+                statsService.transition(batch.get(i), NotificationStatus.PENDING);
+                recentCache.update(batch.get(i));
+            }
+        }
+        return true;
+    }
+
+    private int[] applyStatuses(JdbcTemplate jdbc, List<Notification> batch) {
+        List<Object[]> statusRows = new ArrayList<>(batch.size());
+        List<Object[]> errorRows = new ArrayList<>();
+        for (Notification notification : batch) {
+            statusRows.add(new Object[]{
+                    notification.getStatus().getCode(),
+                    notification.getSentAt() != null ? Timestamp.valueOf(notification.getSentAt()) : null,
+                    notification.getAttempts(),
+                    notification.getNextAttemptAt() != null ? Timestamp.valueOf(notification.getNextAttemptAt()) : null,
+                    notification.getId(),
+                    NotificationStatus.PENDING.getCode()});
+            if (notification.getErrorMessage() != null) {
+                errorRows.add(new Object[]{notification.getErrorMessage(), notification.getId()});
+            }
+        }
+
+        // Only rows still PENDING: the retry worker may have taken over a very late outcome
+        int[] counts = jdbc.batchUpdate("UPDATE notifications SET status = ?, sent_at = ?, attempts = ?, " +
+                "next_attempt_at = ? WHERE id = ? AND status = ?", statusRows);
+        if (!errorRows.isEmpty()) {
+            jdbc.batchUpdate("UPDATE notification_details SET error_message = ? WHERE notification_id = ?", errorRows);
+        }
+        return counts;
+    }
+}
@@ -32,17 +32,9 @@ public class EmailService {
     private String fromEmail;
 
     /**
-     * Send email notification
+     * Send email notification on the calling thread
      */
     public void sendEmail(EmailNotificationRequest request) {
-        sendEmailAsync(request);
-    }
-
-    /**
-     * Send email asynchronously
-     */
-    @Async
-    public void sendEmailAsync(EmailNotificationRequest request) {
         try {
             logger.info("Sending email to: {} with subject: {}", request.getTo(), request.getSubject());
 
@@ -75,6 +67,17 @@ public class EmailService {
         }
     }
 
+    /**
+     * Send email asynchronously
+     * <p>
+     * Only asynchronous when called through the Spring proxy; notification
+     * emails go through EmailDispatchService, which tracks their outcome.
+     */
+    @Async
+    public void sendEmailAsync(EmailNotificationRequest request) {
+        sendEmail(request);
+    }
+
     /**
      * Send simple text email (utility method)
      */
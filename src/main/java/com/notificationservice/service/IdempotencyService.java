@@ -0,0 +1,312 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for the notify endpoints
+ * <p>
+ * The first request with a key claims it by inserting a row into
+ * idempotency_keys (unique on scope and key), runs, and stores a 2xx
+ * response there and in a bounded in-memory map. A retry with the same key gets the
+ * stored response back (with an Idempotent-Replayed header) without the
+ * notification being sent again: from memory on the node that handled it,
+ * from the table on any other node.
+ * <p>
+ * A retry that arrives while the first request is still running gets 409;
+ * reusing a key with a different request body gets 422. A claim whose
+ * request failed, with an exception or a non-2xx response, is released so
+ * the client can retry with the same key; a claim left by a node
+ * that died is taken over after {@code notification.idempotency.in-progress-timeout-ms}.
+ * Keys are kept for {@code notification.idempotency.ttl-ms}.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final String CLAIM_SQL =
+            "INSERT INTO idempotency_keys (scope, idempotency_key, request_hash, created_at, expires_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.idempotency.ttl-ms:86400000}")
+    private long ttlMillis;
+
+    @Value("${notification.idempotency.in-progress-timeout-ms:60000}")
+    private long inProgressTimeoutMillis;
+
+    @Value("${notification.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    /** "scope:key" -> completed response */
+    private final Map<String, StoredResponse> cache = new ConcurrentHashMap<>();
+
+    private Counter executed;
+
+    private Counter replayed;
+
+    private Counter rejected;
+
+    private record StoredResponse(String requestHash, int status, String body, long expiresAt) {
+    }
+
+    /** Outcome of claiming a key: acquired, already completed (stored), or held by another request */
+    private record Claim(boolean acquired, StoredResponse stored) {
+    }
+
+    @PostConstruct
+    public void init() {
+        executed = Counter.builder("notification.idempotency.requests")
+                .tag("result", "executed")
+                .description("Notify requests carrying an Idempotency-Key")
+                .register(meterRegistry);
+        replayed = Counter.builder("notification.idempotency.requests")
+                .tag("result", "replayed")
+                .description("Notify requests carrying an Idempotency-Key")
+                .register(meterRegistry);
+        rejected = Counter.builder("notification.idempotency.requests")
+                .tag("result", "rejected")
+                .description("Notify requests carrying an Idempotency-Key")
+                .register(meterRegistry);
+        Gauge.builder("notification.idempotency.cache.size", cache, Map::size)
+                .description("Idempotency keys held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run {@code action} once per key; without a key it simply runs
+     */
+    public ResponseEntity<?> execute(String scope, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (!enabled || key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            rejected.increment();
+            return error(HttpStatus.BAD_REQUEST, HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String cacheKey = scope + ":" + key;
+        String requestHash = fingerprint(request);
+        long now = System.currentTimeMillis();
+
+        StoredResponse cached = cache.get(cacheKey);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return replay(cached, requestHash);
+            }
+            cache.remove(cacheKey, cached);
+        }
+
+        Claim claim = claim(scope, key, requestHash, now);
+        if (claim.stored() != null) {
+            remember(cacheKey, claim.stored(), now);
+            return replay(claim.stored(), requestHash);
+        }
+        if (!claim.acquired()) {
+            rejected.increment();
+            return error(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(scope, key);
+            throw e;
+        }
+        executed.increment();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            // Errors are mostly transient (broker or SMTP down): let a retry run the request again
+            release(scope, key);
+            return response;
+        }
+        complete(scope, key, cacheKey, requestHash, response);
+        return response;
+    }
+
+    /**
+     * Remove expired keys from the table and from memory
+     */
+    @Scheduled(fixedDelayString = "${notification.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        try {
+            long now = System.currentTimeMillis();
+            cache.values().removeIf(stored -> stored.expiresAt() <= now);
+            int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) {
+                logger.info("Purged {} expired idempotency keys", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to purge expired idempotency keys", e);
+        }
+    }
+
+    public int cacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Insert the claim row, or find out who already has the key
+     */
+    private Claim claim(String scope, String key, String requestHash, long now) {
+        Timestamp createdAt = new Timestamp(now);
+        Timestamp claimExpiresAt = new Timestamp(now + inProgressTimeoutMillis);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                jdbcTemplate.update(CLAIM_SQL, scope, key, requestHash, createdAt, claimExpiresAt);
+                return new Claim(true, null);
+            } catch (DuplicateKeyException e) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                        "SELECT request_hash, response_status, response_body, expires_at FROM idempotency_keys " +
+                                "WHERE scope = ? AND idempotency_key = ?", scope, key);
+                if (rows.isEmpty()) {
+                    continue; // purged in between
+                }
+                Map<String, Object> row = rows.get(0);
+                long expiresAt = ((Timestamp) row.get("expires_at")).getTime();
+                if (expiresAt <= now) {
+                    // Expired key or abandoned claim: take it over
+                    jdbcTemplate.update("DELETE FROM idempotency_keys WHERE scope = ? AND idempotency_key = ? AND expires_at <= ?",
+                            scope, key, createdAt);
+                    continue;
+                }
+                Number status = (Number) row.get("response_status");
+                if (status == null) {
+                    return new Claim(false, null);
+                }
+                return new Claim(false, new StoredResponse((String) row.get("request_hash"), status.intValue(),
+                        (String) row.get("response_body"), expiresAt));
+            }
+        }
+        return new Claim(false, null);
+    }
+
+    private void complete(String scope, String key, String cacheKey, String requestHash, ResponseEntity<?> response) {
+        long now = System.currentTimeMillis();
+        try {
+            String body = objectMapper.writeValueAsString(response.getBody());
+            StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(), body, now + ttlMillis);
+            jdbcTemplate.update("UPDATE idempotency_keys SET response_status = ?, response_body = ?, expires_at = ? " +
+                    "WHERE scope = ? AND idempotency_key = ?", stored.status(), body, new Timestamp(stored.expiresAt()), scope, key);
+            remember(cacheKey, stored, now);
+        } catch (Exception e) {
+            // The claim expires after the in-progress timeout, after which the key can be used again
+            logger.error("Failed to store the response for idempotency key {}", key, e);
+        }
+    }
+
+    private void release(String scope, String key) {
+        try {
+            jdbcTemplate.update("DELETE FROM idempotency_keys WHERE scope = ? AND idempotency_key = ? AND response_status IS NULL",
+                    scope, key);
+        } catch (Exception e) {
+            logger.error("Failed to release idempotency key {}", key, e);
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            rejected.increment();
+            return error(HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used with a different request");
+        }
+        replayed.increment();
+        Object body;
+        try {
+            body = objectMapper.readValue(stored.body(), Object.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read stored response", e);
+        }
+        return ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true").body(body);
+    }
+
+    private void remember(String cacheKey, StoredResponse stored, long now) {
+        if (cache.size() >= cacheSize) {
+            makeRoom(now);
+        }
+        cache.put(cacheKey, stored);
+    }
+
+    private void makeRoom(long now) {
+        cache.values().removeIf(stored -> stored.expiresAt() <= now);
+
+        int toEvict = cache.size() - cacheSize + Math.max(1, cacheSize / 10);
+        Iterator<String> it = cache.keySet().iterator();
+        while (toEvict-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = SHA_256.get();
+            digest.reset();
+            byte[] json = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(digest.digest(json));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize request", e);
+        }
+    }
+
+    private static ResponseEntity<?> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of(
+                "status", "error",
+                "message", message
+        ));
+    }
+}
@@ -0,0 +1,141 @@
+package com.notificationservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for user last-login timestamps
+ * <p>
+ * Logins only record the newest timestamp per user in memory. The buffer is
+ * flushed as a single batched UPDATE at most every
+ * {@code auth.last-login.max-staleness-ms}, early when it grows beyond
+ * {@code auth.last-login.max-pending} users, and on shutdown. Flushes run on
+ * a dedicated flusher thread; a login that fills the buffer only wakes it up.
+ * A failed flush puts the timestamps back and is retried on the next run.
+ */
+@Component
+public class LastLoginWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginWriteBehind.class);
+
+    private static final String UPDATE_SQL =
+            "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${auth.last-login.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${auth.last-login.max-staleness-ms:10000}")
+    private long maxStalenessMs;
+
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    /** Holds at most one wake-up for the flusher thread */
+    private final BlockingQueue<Boolean> wakeUp = new ArrayBlockingQueue<>(1);
+
+    private Thread flusherThread;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        running = true;
+        flusherThread = new Thread(this::runFlusher, "last-login-flusher");
+        flusherThread.setDaemon(true);
+        flusherThread.start();
+    }
+
+    /**
+     * Record a login, keeping only the latest timestamp per user
+     */
+    public void record(Long userId, LocalDateTime loginTime) {
+        keepLatest(userId, loginTime);
+
+        if (pending.size() >= maxPending) {
+            wakeUp.offer(Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Flush buffered timestamps as one JDBC batch
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(pending.size());
+        for (Long userId : pending.keySet()) {
+            LocalDateTime loginTime = pending.remove(userId);
+            if (loginTime != null) {
+                Timestamp ts = Timestamp.valueOf(loginTime);
+                batch.add(new Object[]{ts, userId, ts});
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+            logger.debug("Flushed last-login timestamps for {} users", batch.size());
+        } catch (Exception e) {
+            logger.error("Failed to flush last-login timestamps, will retry", e);
+            for (Object[] row : batch) {
+                keepLatest((Long) row[1], ((Timestamp) row[0]).toLocalDateTime());
+            }
+        }
+    }
+
+    private void keepLatest(Long userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+
+    /**
+     * Stop the flusher thread and write whatever is left
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        wakeUp.offer(Boolean.TRUE);
+        try {
+            flusherThread.join(maxStalenessMs + 5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                wakeUp.poll(maxStalenessMs, TimeUnit.MILLISECONDS);
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Last-login flusher failed", e);
+            }
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+}
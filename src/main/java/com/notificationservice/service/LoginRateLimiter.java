@@ -0,0 +1,113 @@
+package com.notificationservice.service;
+
+import com.notificationservice.exception.TooManyRequestsException;
+import com.notificationservice.util.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client-IP and per-username rate limiting for the authentication endpoints
+ * <p>
+ * Called by AuthController before any database lookup or password hashing,
+ * so rejected attempts cost only a map lookup and a CAS.
+ */
+@Service
+public class LoginRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.rate-limit.per-ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${auth.rate-limit.per-ip.refill-per-second:1.0}")
+    private double ipRefillPerSecond;
+
+    @Value("${auth.rate-limit.per-user.capacity:5}")
+    private int userCapacity;
+
+    @Value("${auth.rate-limit.per-user.refill-per-second:0.1}")
+    private double userRefillPerSecond;
+
+    @Value("${auth.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    private TokenBucketRateLimiter ipLimiter;
+
+    private TokenBucketRateLimiter userLimiter;
+
+    private Counter ipRejections;
+
+    private Counter userRejections;
+
+    @PostConstruct
+    public void init() {
+        ipLimiter = new TokenBucketRateLimiter(ipCapacity, ipRefillPerSecond, maxKeys);
+        userLimiter = new TokenBucketRateLimiter(userCapacity, userRefillPerSecond, maxKeys);
+        ipRejections = Counter.builder("auth.rate.limited")
+                .tag("key", "ip")
+                .description("Authentication attempts rejected by the rate limiter")
+                .register(meterRegistry);
+        userRejections = Counter.builder("auth.rate.limited")
+                .tag("key", "username")
+                .description("Authentication attempts rejected by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take a permit for both the client IP and the username
+     *
+     * @throws TooManyRequestsException if either bucket is empty
+     */
+    public void checkAttempt(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+
+        long waitNanos = ipLimiter.tryAcquire(clientIp);
+        if (waitNanos > 0) {
+            ipRejections.increment();
+            logger.warn("Rate limit exceeded for client IP: {}", clientIp);
+            throw new TooManyRequestsException("Too many attempts from this address, please retry later",
+                    toRetryAfterSeconds(waitNanos));
+        }
+
+        waitNanos = userLimiter.tryAcquire(username.toLowerCase(Locale.ROOT));
+        if (waitNanos > 0) {
+            userRejections.increment();
+            logger.warn("Rate limit exceeded for username: {}", username);
+            throw new TooManyRequestsException("Too many attempts for this account, please retry later",
+                    toRetryAfterSeconds(waitNanos));
+        }
+    }
+
+    /**
+     * Drop idle buckets so the key maps stay small
+     */
+    @Scheduled(fixedDelayString = "${auth.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        int evicted = ipLimiter.evictIdle() + userLimiter.evictIdle();
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle rate-limit buckets", evicted);
+        }
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+}
@@ -0,0 +1,259 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous, batched writer for notification audit records
+ * <p>
+ * Records are pushed onto a bounded buffer and drained by a single writer
+ * thread, which persists up to {@code audit.writer.flush-size} records per
+ * transaction. Notification ids come from a pooled table generator, so
+ * Hibernate groups the inserts into JDBC batches. Content is moved into the
+ * deduplicated content store before each batch is written, and the
+ * notification and detail rows of a batch are inserted together.
+ * <p>
+ * When the buffer is full the {@code audit.writer.full-policy} decides:
+ * - BLOCK: wait up to {@code audit.writer.block-timeout-ms} for space, then spill
+ * - SPILL: write the record synchronously on the caller's thread
+ */
+@Service
+public class NotificationAuditWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationAuditWriter.class);
+
+    @Autowired
+    private NotificationDetailService detailService;
+
+    @Autowired
+    private NotificationStatsService statsService;
+
+    @Autowired
+    private RecentNotificationCache recentCache;
+
+    @Autowired
+    private NotificationSearchIndex searchIndex;
+
+    @Autowired
+    private NotificationContentStore contentStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audit.writer.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${audit.writer.flush-size:200}")
+    private int flushSize;
+
+    @Value("${audit.writer.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${audit.writer.full-policy:BLOCK}")
+    private FullPolicy fullPolicy;
+
+    @Value("${audit.writer.block-timeout-ms:5000}")
+    private long blockTimeoutMs;
+
+    private BlockingQueue<Notification> buffer;
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    private Counter written;
+
+    private Counter failed;
+
+    private Counter spilled;
+
+    /**
+     * What to do when the buffer is full
+     */
+    public enum FullPolicy {
+        BLOCK, SPILL
+    }
+
+    @PostConstruct
+    public void init() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        written = Counter.builder("audit.writer.records")
+                .tag("result", "written")
+                .description("Notification audit records processed by the writer")
+                .register(meterRegistry);
+        failed = Counter.builder("audit.writer.records")
+                .tag("result", "failed")
+                .description("Notification audit records processed by the writer")
+                .register(meterRegistry);
+        spilled = Counter.builder("audit.writer.records")
+                .tag("result", "spilled")
+                .description("Notification audit records processed by the writer")
+                .register(meterRegistry);
+        Gauge.builder("audit.writer.buffer.depth", buffer, BlockingQueue::size)
+                .description("Notification audit records waiting to be written")
+                .register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::runWriter, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queue a record for writing; never throws
+     */
+    public void enqueue(Notification notification) {
+        try {
+            boolean accepted = fullPolicy == FullPolicy.BLOCK
+                    ? buffer.offer(notification, blockTimeoutMs, TimeUnit.MILLISECONDS)
+                    : buffer.offer(notification);
+            if (!accepted) {
+                spill(notification);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            spill(notification);
+        }
+    }
+
+    /**
+     * Write everything currently buffered on the calling thread
+     */
+    public void flush() {
+        List<Notification> batch = new ArrayList<>(flushSize);
+        while (buffer.drainTo(batch, flushSize) > 0) {
+            write(batch);
+            batch = new ArrayList<>(flushSize);
+        }
+    }
+
+    public int pending() {
+        return buffer.size();
+    }
+
+    /**
+     * Stop the writer thread and write whatever is left
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            writerThread.join(flushIntervalMs * 2 + 5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void runWriter() {
+        while (running) {
+            List<Notification> batch = new ArrayList<>(flushSize);
+            try {
+                Notification first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Fill the batch until it is full or the oldest record has waited a full interval
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < flushSize) {
+                    buffer.drainTo(batch, flushSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || remaining <= 0) {
+                        break;
+                    }
+                    Notification next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Audit writer loop failed", e);
+            }
+        }
+    }
+
+    private void write(List<Notification> batch) {
+        contentStore.externalize(batch);
+        try {
+            detailService.saveAll(batch);
+        } catch (Exception e) {
+            // Isolate the bad record(s) by retrying one row at a time; rows a shard already committed are skipped
+            logger.warn("Batch write of {} audit records failed, retrying individually", batch.size(), e);
+            List<Notification> saved = new ArrayList<>(batch.size());
+            for (Notification notification : batch) {
+                try {
+                    detailService.save(notification);
+                    saved.add(notification);
+                } catch (Exception rowError) {
+                    failed.increment();
+                    logger.error("Failed to save notification record: {}", notification, rowError);
+                }
+            }
+            written.increment(saved.size());
+            afterWrite(saved);
+            return;
+        }
+        written.increment(batch.size());
+        afterWrite(batch);
+    }
+
+    /**
+     * Update stats, recent cache and search index for committed records; a failure here never rewrites them
+     */
+    private void afterWrite(List<Notification> saved) {
+        if (saved.isEmpty()) {
+            return;
+        }
+        try {
+            saved.forEach(statsService::record);
+        } catch (Exception e) {
+            logger.error("Failed to record stats for {} notifications", saved.size(), e);
+        }
+        try {
+            saved.forEach(recentCache::record);
+        } catch (Exception e) {
+            logger.error("Failed to update recent notification cache for {} notifications", saved.size(), e);
+        }
+        try {
+            searchIndex.add(saved);
+        } catch (Exception e) {
+            logger.error("Failed to index {} notifications", saved.size(), e);
+        }
+    }
+
+    private void spill(Notification notification) {
+        spilled.increment();
+        try {
+            contentStore.externalize(List.of(notification));
+            detailService.save(notification);
+        } catch (Exception e) {
+            failed.increment();
+            logger.error("Failed to save notification record", e);
+            return;
+        }
+        afterWrite(List.of(notification));
+    }
+}
@@ -0,0 +1,302 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationContent;
+import com.notificationservice.repository.NotificationContentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Content-addressed storage for notification bodies
+ * <p>
+ * The audit writer moves each record's content into notification_contents,
+ * keyed by SHA-256, so identical bodies (broadcasts) are stored once and the
+ * notifications row only carries a 64-character hash. Bodies larger than
+ * {@code notification.content.compress-threshold-bytes} are deflated when
+ * that actually saves space. Content is only fetched and inflated when a
+ * read asks for it, one batched lookup per page.
+ * <p>
+ * Reusing a stored body refreshes its created_at, and retention only removes
+ * unreferenced content older than the retention period. A hash this node
+ * remembers as stored was refreshed at most {@code known-hash-ttl-ms} ago,
+ * so it cannot be purged by any node before the detail row pointing at it
+ * is written, as long as that TTL is far shorter than the retention period.
+ */
+@Service
+public class NotificationContentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationContentStore.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notification_contents (content_hash, compressed, original_size, data, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String TOUCH_SQL = "UPDATE notification_contents SET created_at = ? WHERE content_hash = ?";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    @Autowired
+    private NotificationContentRepository contentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${notification.content.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.content.compress-threshold-bytes:256}")
+    private int compressThresholdBytes;
+
+    @Value("${notification.content.known-hash-ttl-ms:3600000}")
+    private long knownHashTtlMillis;
+
+    @Value("${notification.content.cache-size:10000}")
+    private int cacheSize;
+
+    /** Hashes recently confirmed to be stored -> expiry, to skip the existence query for repeated bodies */
+    private final Map<String, Long> knownHashes = new ConcurrentHashMap<>();
+
+    /** Recently read content by hash */
+    private final Map<String, String> readCache = new ConcurrentHashMap<>();
+
+    /**
+     * Move inline content of unsaved records into the store
+     * <p>
+     * On failure the records keep their inline content, so the audit write
+     * still succeeds.
+     */
+    public void externalize(Collection<Notification> notifications) {
+        if (!enabled) {
+            return;
+        }
+
+        Map<String, String> bodies = new LinkedHashMap<>();
+        Map<Notification, String> hashes = new IdentityHashMap<>();
+        for (Notification notification : notifications) {
+            String content = notification.getInlineContent();
+            if (content != null && notification.getContentHash() == null) {
+                String hash = hash(content);
+                hashes.put(notification, hash);
+                bodies.putIfAbsent(hash, content);
+            }
+        }
+        if (bodies.isEmpty()) {
+            return;
+        }
+
+        try {
+            storeMissing(bodies);
+        } catch (Exception e) {
+            logger.error("Failed to store notification content, keeping it inline", e);
+            return;
+        }
+
+        hashes.forEach((notification, hash) -> {
+            notification.setContentHash(hash);
+            notification.setLoadedContent(notification.getInlineContent());
+            notification.setContent(null);
+        });
+    }
+
+    /**
+     * Fill in the content of records that reference the store, with one query for the missing hashes
+     */
+    public void resolve(Collection<Notification> notifications) {
+        Map<String, String> resolved = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (Notification notification : notifications) {
+            String hash = notification.getContentHash();
+            if (hash != null && notification.getInlineContent() == null && !resolved.containsKey(hash)) {
+                String cached = readCache.get(hash);
+                resolved.put(hash, cached);
+                if (cached == null) {
+                    missing.add(hash);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (NotificationContent content : contentRepository.findAllById(missing)) {
+                String text = decode(content);
+                resolved.put(content.getContentHash(), text);
+                cacheRead(content.getContentHash(), text);
+            }
+        }
+
+        for (Notification notification : notifications) {
+            String hash = notification.getContentHash();
+            if (hash != null && notification.getInlineContent() == null) {
+                notification.setLoadedContent(resolved.get(hash));
+            }
+        }
+    }
+
+    /**
+     * Forget cached state for content removed by retention
+     */
+    public void clearCaches() {
+        knownHashes.clear();
+        readCache.clear();
+    }
+
+    private void storeMissing(Map<String, String> bodies) {
+        long now = System.currentTimeMillis();
+        List<String> candidates = new ArrayList<>();
+        for (String hash : bodies.keySet()) {
+            Long expiresAt = knownHashes.get(hash);
+            if (expiresAt == null || expiresAt <= now) {
+                candidates.add(hash);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // Refresh stored bodies so retention keeps them; the ones not found are inserted
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> touches = new ArrayList<>(candidates.size());
+        for (String hash : candidates) {
+            touches.add(new Object[]{createdAt, hash});
+        }
+        int[] touched = jdbcTemplate.batchUpdate(TOUCH_SQL, touches);
+        List<String> toInsert = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (touched[i] < 1) {
+                toInsert.add(candidates.get(i)); // not stored, or the driver did not say
+            }
+        }
+
+        List<Object[]> rows = new ArrayList<>(toInsert.size());
+        for (String hash : toInsert) {
+            byte[] raw = bodies.get(hash).getBytes(StandardCharsets.UTF_8);
+            byte[] data = raw;
+            boolean compressed = false;
+            if (raw.length > compressThresholdBytes) {
+                byte[] deflated = deflate(raw);
+                if (deflated.length < raw.length) {
+                    data = deflated;
+                    compressed = true;
+                }
+            }
+            rows.add(new Object[]{hash, compressed, raw.length, data, createdAt});
+        }
+
+        if (!rows.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            } catch (DataIntegrityViolationException e) {
+                // Another writer stored some of the same bodies; insert the rest one by one
+                for (Object[] row : rows) {
+                    try {
+                        jdbcTemplate.update(INSERT_SQL, row);
+                    } catch (DataIntegrityViolationException duplicate) {
+                        // Already stored
+                    }
+                }
+            }
+        }
+
+        if (knownHashes.size() + candidates.size() > cacheSize) {
+            makeRoom(knownHashes, candidates.size());
+        }
+        for (String hash : candidates) {
+            knownHashes.put(hash, now + knownHashTtlMillis);
+        }
+    }
+
+    private void cacheRead(String hash, String content) {
+        if (readCache.size() >= cacheSize) {
+            makeRoom(readCache, 1);
+        }
+        readCache.put(hash, content);
+    }
+
+    private void makeRoom(Map<String, ?> map, int needed) {
+        int toEvict = map.size() + needed - cacheSize + Math.max(1, cacheSize / 10);
+        Iterator<String> it = map.keySet().iterator();
+        while (toEvict-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    static String hash(String content) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static String decode(NotificationContent content) {
+        byte[] data = content.getData();
+        if (Boolean.TRUE.equals(content.getCompressed())) {
+            data = inflate(data, content.getOriginalSize());
+        }
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int originalSize) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] result = new byte[originalSize];
+            int offset = 0;
+            while (offset < originalSize && !inflater.finished()) {
+                int n = inflater.inflate(result, offset, originalSize - offset);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated content");
+                }
+                offset += n;
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt notification content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationDetail;
+import com.notificationservice.repository.NotificationDetailRepository;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.repository.ShardedNotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes and reads notifications together with their detail rows
+ * <p>
+ * A notification and its detail row are inserted in one transaction. Reads
+ * load the narrow rows first; details are attached afterwards for just the
+ * records a caller needs, with one batched lookup by id.
+ * <p>
+ * When notification sharding is enabled both tables live on the recipient's
+ * shard and are written and read through ShardedNotificationRepository.
+ */
+@Service
+public class NotificationDetailService {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationDetailRepository detailRepository;
+
+    @Autowired
+    private NotificationContentStore contentStore;
+
+    @Autowired(required = false)
+    private ShardedNotificationRepository shardedRepository;
+
+    /**
+     * Insert new notifications and their details
+     */
+    @Transactional
+    public List<Notification> saveAll(List<Notification> notifications) {
+        if (shardedRepository != null) {
+            return shardedRepository.saveAll(notifications);
+        }
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        List<NotificationDetail> details = new ArrayList<>();
+        for (Notification notification : saved) {
+            if (NotificationDetail.hasDetail(notification)) {
+                details.add(new NotificationDetail(notification));
+            }
+        }
+        if (!details.isEmpty()) {
+            detailRepository.saveAll(details);
+        }
+        return saved;
+    }
+
+    /**
+     * Insert one new notification and its details
+     * <p>
+     * Also used to retry a notification from a failed batch. Sharded inserts
+     * keep its id and skip it if its shard already committed it; otherwise
+     * the batch was rolled back and the id it was given is dropped so JPA
+     * inserts the row instead of merging it.
+     */
+    @Transactional
+    public Notification save(Notification notification) {
+        if (shardedRepository != null) {
+            return shardedRepository.saveAll(List.of(notification)).get(0);
+        }
+        notification.setId(null);
+        Notification saved = notificationRepository.save(notification);
+        if (NotificationDetail.hasDetail(saved)) {
+            detailRepository.save(new NotificationDetail(saved));
+        }
+        return saved;
+    }
+
+    /**
+     * Load details for the given notifications and resolve their content
+     */
+    @Transactional(readOnly = true)
+    public void attach(Collection<Notification> notifications) {
+        List<Long> ids = notifications.stream()
+                .map(Notification::getId)
+                .filter(id -> id != null)
+                .toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (shardedRepository != null) {
+            shardedRepository.attachDetails(notifications.stream().filter(n -> n.getId() != null).toList());
+            contentStore.resolve(notifications);
+            return;
+        }
+
+        Map<Long, NotificationDetail> details = detailRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(NotificationDetail::getNotificationId, Function.identity()));
+        for (Notification notification : notifications) {
+            NotificationDetail detail = details.get(notification.getId());
+            if (detail != null) {
+                detail.applyTo(notification);
+            }
+        }
+        contentStore.resolve(notifications);
+    }
+}
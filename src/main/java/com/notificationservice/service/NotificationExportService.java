@@ -0,0 +1,335 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.repository.ShardedNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams notification history out as NDJSON or CSV
+ * <p>
+ * Rows are read in id order through a single forward-only, read-only JDBC
+ * cursor with {@code notification.export.fetch-size} rows per round trip
+ * (MySQL needs useCursorFetch=true on the URL for this, see
+ * application-prod.yml) and written straight to the output stream. Only one
+ * chunk of {@code notification.export.chunk-size} rows is held at a time,
+ * long enough to resolve its content from the content store in one lookup,
+ * so heap use does not grow with the size of the export.
+ * <p>
+ * The export runs in a read-only transaction so the cursor is opened on the
+ * replica when one is configured (see ReplicaRoutingDataSource). With
+ * notification sharding the primary and then each shard are exported in
+ * turn, each in id order.
+ */
+@Service
+public class NotificationExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationExportService.class);
+
+    private static final String SELECT_SQL =
+            "SELECT n.id, n.type, n.recipient, n.status, n.created_at, n.sent_at, n.attempts, " +
+                    "d.content, d.content_hash, d.error_message " +
+                    "FROM notifications n LEFT JOIN notification_details d ON d.notification_id = n.id";
+
+    private static final String[] COLUMNS = {
+            "id", "type", "recipient", "status", "createdAt", "sentAt", "attempts", "errorMessage", "content"};
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired(required = false)
+    private ShardedNotificationRepository shardedRepository;
+
+    @Autowired
+    private NotificationContentStore contentStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${notification.export.chunk-size:500}")
+    private int chunkSize;
+
+    /** The primary (or replica), then every shard */
+    private final List<JdbcTemplate> cursorTemplates = new ArrayList<>();
+
+    private Counter exportedRows;
+
+    @PostConstruct
+    public void init() {
+        List<DataSource> databases = new ArrayList<>();
+        databases.add(dataSource);
+        if (shardedRepository != null) {
+            databases.addAll(shardedRepository.getDataSources());
+        }
+        for (DataSource database : databases) {
+            JdbcTemplate cursorTemplate = new JdbcTemplate(database);
+            cursorTemplate.setFetchSize(fetchSize);
+            cursorTemplates.add(cursorTemplate);
+        }
+        exportedRows = Counter.builder("notification.export.rows")
+                .description("Notification rows written by history exports")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Write matching notifications, oldest first, to {@code out}
+     *
+     * @param from inclusive lower bound on created_at, or null
+     * @param to exclusive upper bound on created_at, or null
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, String recipient, NotificationStatus status, LocalDateTime from, LocalDateTime to,
+                       boolean includeContent, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT_SQL).append(" WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (recipient != null && !recipient.isBlank()) {
+            sql.append(" AND n.recipient = ?");
+            params.add(recipient);
+        }
+        if (status != null) {
+            sql.append(" AND n.status = ?");
+            params.add(status.getCode());
+        }
+        if (from != null) {
+            sql.append(" AND n.created_at >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND n.created_at < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY n.id");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer, includeContent) : new NdjsonRowWriter(writer, includeContent);
+        List<Notification> chunk = new ArrayList<>(chunkSize);
+        long[] written = {0};
+
+        try {
+            rowWriter.begin();
+            for (JdbcTemplate cursorTemplate : cursorTemplates) {
+                cursorTemplate.query(sql.toString(), rs -> {
+                    Notification notification = new Notification();
+                    notification.setId(rs.getLong("id"));
+                    notification.setType(NotificationType.fromCode(rs.getInt("type")));
+                    notification.setRecipient(rs.getString("recipient"));
+                    notification.setStatus(NotificationStatus.fromCode(rs.getInt("status")));
+                    notification.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+                    notification.setSentAt(toLocalDateTime(rs.getTimestamp("sent_at")));
+                    notification.setAttempts(rs.getInt("attempts"));
+                    notification.setErrorMessage(rs.getString("error_message"));
+                    if (includeContent) {
+                        notification.setContent(rs.getString("content"));
+                        notification.setContentHash(rs.getString("content_hash"));
+                    }
+                    chunk.add(notification);
+                    if (chunk.size() >= chunkSize) {
+                        written[0] += writeChunk(chunk, rowWriter, includeContent);
+                    }
+                }, params.toArray());
+            }
+            written[0] += writeChunk(chunk, rowWriter, includeContent);
+            rowWriter.finish();
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor is closed by the time we get here
+            throw e.getCause();
+        }
+
+        exportedRows.increment(written[0]);
+        logger.info("Exported {} notifications as {}", written[0], format);
+        return written[0];
+    }
+
+    private long writeChunk(List<Notification> chunk, RowWriter rowWriter, boolean includeContent) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        if (includeContent) {
+            contentStore.resolve(chunk);
+        }
+        try {
+            for (Notification notification : chunk) {
+                rowWriter.write(notification);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int size = chunk.size();
+        chunk.clear();
+        return size;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static String format(LocalDateTime time) {
+        return time != null ? time.toString() : null;
+    }
+
+    private interface RowWriter {
+
+        void begin() throws IOException;
+
+        void write(Notification notification) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /** One JSON object per line */
+    private class NdjsonRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private final boolean includeContent;
+
+        private JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer, boolean includeContent) {
+            this.writer = writer;
+            this.includeContent = includeContent;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        }
+
+        @Override
+        public void write(Notification notification) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", notification.getId());
+            generator.writeStringField("type", notification.getType().name());
+            generator.writeStringField("recipient", notification.getRecipient());
+            generator.writeStringField("status", notification.getStatus().name());
+            generator.writeStringField("createdAt", format(notification.getCreatedAt()));
+            generator.writeStringField("sentAt", format(notification.getSentAt()));
+            generator.writeNumberField("attempts", notification.getAttempts());
+            generator.writeStringField("errorMessage", notification.getErrorMessage());
+            if (includeContent) {
+                generator.writeStringField("content", notification.getContent());
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /** RFC 4180 CSV with a header row */
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private final boolean includeContent;
+
+        CsvRowWriter(Writer writer, boolean includeContent) {
+            this.writer = writer;
+            this.includeContent = includeContent;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writeRow(includeContent ? COLUMNS : Arrays.copyOf(COLUMNS, COLUMNS.length - 1));
+        }
+
+        @Override
+        public void write(Notification notification) throws IOException {
+            String[] row = {
+                    String.valueOf(notification.getId()),
+                    notification.getType().name(),
+                    notification.getRecipient(),
+                    notification.getStatus().name(),
+                    format(notification.getCreatedAt()),
+                    format(notification.getSentAt()),
+                    String.valueOf(notification.getAttempts()),
+                    notification.getErrorMessage(),
+                    notification.getContent()};
+            writeRow(includeContent ? row : Arrays.copyOf(row, row.length - 1));
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private void writeRow(String[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
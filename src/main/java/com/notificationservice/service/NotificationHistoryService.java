@@ -0,0 +1,178 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.dto.NotificationPage;
+import com.notificationservice.model.dto.NotificationSummary;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.repository.ShardedNotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Notification history reads with keyset pagination
+ * <p>
+ * Pages are ordered newest first by (created_at, id). The cursor encodes the
+ * last row of the previous page, so each page is an index range scan of
+ * limit + 1 rows no matter how deep the client has paged. Summary pages
+ * select only the narrow columns; full pages also attach each row's details.
+ * <p>
+ * With sharding enabled, recipient pages come from the recipient's shard and
+ * status or unfiltered pages are merged from every shard.
+ */
+@Service
+public class NotificationHistoryService {
+
+    /** Cursor for the first page: sorts after every stored row */
+    private static final LocalDateTime FIRST_PAGE_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationDetailService detailService;
+
+    @Autowired(required = false)
+    private ShardedNotificationRepository shardedRepository;
+
+    @Value("${notification.history.default-limit:50}")
+    private int defaultLimit;
+
+    @Value("${notification.history.max-limit:500}")
+    private int maxLimit;
+
+    /**
+     * Fetch one page of full history records, optionally filtered by recipient or status
+     *
+     * @throws IllegalArgumentException if the cursor or status is malformed or both filters are given
+     */
+    @Transactional(readOnly = true)
+    public NotificationPage<Notification> findPage(String recipient, String status, String cursor, Integer limit) {
+        Keyset keyset = Keyset.of(recipient, status, cursor);
+        NotificationStatus statusFilter = status != null ? NotificationStatus.parse(status) : null;
+        Pageable pageable = pageable(limit);
+
+        Slice<Notification> slice;
+        if (shardedRepository != null) {
+            slice = findShardedPage(recipient, statusFilter, keyset, pageable);
+        } else if (recipient != null) {
+            slice = notificationRepository.findPageByRecipientBefore(recipient, keyset.createdAt(), keyset.id(), pageable);
+        } else if (statusFilter != null) {
+            slice = notificationRepository.findPageByStatusBefore(statusFilter, keyset.createdAt(), keyset.id(), pageable);
+        } else {
+            slice = notificationRepository.findPageBefore(keyset.createdAt(), keyset.id(), pageable);
+        }
+
+        detailService.attach(slice.getContent());
+        return toPage(slice, Notification::getCreatedAt, Notification::getId);
+    }
+
+    /**
+     * Fetch one page of history summaries, optionally filtered by recipient or status
+     *
+     * @throws IllegalArgumentException if the cursor or status is malformed or both filters are given
+     */
+    @Transactional(readOnly = true)
+    public NotificationPage<NotificationSummary> findSummaryPage(String recipient, String status,
+                                                                 String cursor, Integer limit) {
+        Keyset keyset = Keyset.of(recipient, status, cursor);
+        NotificationStatus statusFilter = status != null ? NotificationStatus.parse(status) : null;
+        Pageable pageable = pageable(limit);
+
+        Slice<NotificationSummary> slice;
+        if (shardedRepository != null) {
+            slice = findShardedPage(recipient, statusFilter, keyset, pageable).map(NotificationHistoryService::summarize);
+        } else if (recipient != null) {
+            slice = notificationRepository.findSummaryPageByRecipientBefore(
+                    recipient, keyset.createdAt(), keyset.id(), pageable);
+        } else if (statusFilter != null) {
+            slice = notificationRepository.findSummaryPageByStatusBefore(
+                    statusFilter, keyset.createdAt(), keyset.id(), pageable);
+        } else {
+            slice = notificationRepository.findSummaryPageBefore(keyset.createdAt(), keyset.id(), pageable);
+        }
+
+        return toPage(slice, NotificationSummary::getCreatedAt, NotificationSummary::getId);
+    }
+
+    private Slice<Notification> findShardedPage(String recipient, NotificationStatus status, Keyset keyset,
+                                                Pageable pageable) {
+        if (recipient != null) {
+            return shardedRepository.findPageByRecipientBefore(recipient, keyset.createdAt(), keyset.id(), pageable);
+        } else if (status != null) {
+            return shardedRepository.findPageByStatusBefore(status, keyset.createdAt(), keyset.id(), pageable);
+        }
+        return shardedRepository.findPageBefore(keyset.createdAt(), keyset.id(), pageable);
+    }
+
+    private static NotificationSummary summarize(Notification notification) {
+        return new NotificationSummary(notification.getId(), notification.getType(), notification.getRecipient(),
+                notification.getStatus(), notification.getCreatedAt(), notification.getSentAt());
+    }
+
+    private Pageable pageable(Integer limit) {
+        int size = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        return PageRequest.of(0, size);
+    }
+
+    private static <T> NotificationPage<T> toPage(Slice<T> slice,
+                                                  Function<T, LocalDateTime> createdAt,
+                                                  Function<T, Long> id) {
+        List<T> items = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !items.isEmpty()) {
+            T last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(createdAt.apply(last), id.apply(last));
+        }
+        return new NotificationPage<>(items, nextCursor);
+    }
+
+    /**
+     * Position to read before; the first page starts after every stored row
+     */
+    private record Keyset(LocalDateTime createdAt, long id) {
+
+        static Keyset of(String recipient, String status, String cursor) {
+            if (recipient != null && status != null) {
+                throw new IllegalArgumentException("Filter by recipient or status, not both");
+            }
+            if (cursor == null || cursor.isBlank()) {
+                return new Keyset(FIRST_PAGE_CREATED_AT, Long.MAX_VALUE);
+            }
+            String[] parts = decodeCursor(cursor);
+            return new Keyset(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        }
+    }
+
+    static String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
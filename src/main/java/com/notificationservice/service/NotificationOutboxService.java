@@ -0,0 +1,399 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.config.RabbitMQConfig;
+import com.notificationservice.model.dto.QueueNotificationRequest;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.OutboxMessage;
+import com.notificationservice.repository.OutboxMessageRepository;
+import com.notificationservice.repository.ShardedNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transactional outbox for queue notifications
+ * <p>
+ * A queue request inserts its QUEUED notification and an outbox row in one
+ * database transaction, so the request never waits on the broker and the
+ * audit trail and the published messages cannot disagree. A relay thread
+ * claims due outbox rows in id order with SELECT ... FOR UPDATE SKIP LOCKED
+ * (so relays on several nodes split the work), pushes their next_attempt_at
+ * out by {@code notification.outbox.lease-ms} and commits the claim. The
+ * batch is then published to {@link RabbitMQConfig#NOTIFICATION_EXCHANGE} on
+ * one channel with no locks or pooled connection held, publisher confirms are
+ * awaited once, and the confirmed rows are deleted with a single statement.
+ * A relay that dies mid-batch leaves its rows to be claimed again once the
+ * lease expires.
+ * <p>
+ * Delivery is at-least-once: if confirms time out or are nacked the rows
+ * stay, their attempts are incremented and they are due again after
+ * {@code notification.outbox.failure-backoff-ms}, so later rows are relayed
+ * in the meantime. After {@code notification.outbox.max-attempts} a row is
+ * parked: it keeps its last error and is no longer claimed. Rows whose
+ * payload cannot be read or converted are parked straight away instead of
+ * failing the rest of their batch.
+ * <p>
+ * With notification sharding the notification lives on a shard and the
+ * outbox on the primary, which one transaction cannot cover. A request then
+ * only reserves the notification id and inserts the outbox row; the relay
+ * writes the notification to its shard before publishing it. Shard inserts
+ * skip ids that are already there, so a batch that fails after that write is
+ * simply written and published again. Until the relay has run, the
+ * notification is in the recent list but not yet in history.
+ */
+@Service
+public class NotificationOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxService.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private static final String CLAIM_SQL =
+            "SELECT id, notification_id, payload, created_at FROM notification_outbox WHERE parked_at IS NULL " +
+                    "AND (next_attempt_at IS NULL OR next_attempt_at <= ?) ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    @Autowired
+    private OutboxMessageRepository outboxRepository;
+
+    @Autowired
+    private NotificationDetailService detailService;
+
+    @Autowired
+    private NotificationContentStore contentStore;
+
+    @Autowired
+    private NotificationStatsService statsService;
+
+    @Autowired
+    private RecentNotificationCache recentCache;
+
+    @Autowired
+    private NotificationSearchIndex searchIndex;
+
+    @Autowired
+    private QueueService queueService;
+
+    @Autowired(required = false)
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired(required = false)
+    private ShardedNotificationRepository shardedRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${notification.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${notification.outbox.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${notification.outbox.failure-backoff-ms:5000}")
+    private long failureBackoffMs;
+
+    @Value("${notification.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${notification.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    /** Released after each commit so the relay does not wait out the poll interval */
+    private final Semaphore wakeUp = new Semaphore(0);
+
+    private Thread relayThread;
+
+    private volatile boolean running;
+
+    private Counter published;
+
+    private Counter failed;
+
+    private Counter parked;
+
+    @PostConstruct
+    public void init() {
+        published = Counter.builder("notification.outbox.messages")
+                .tag("result", "published")
+                .description("Outbox messages handled by the relay")
+                .register(meterRegistry);
+        failed = Counter.builder("notification.outbox.messages")
+                .tag("result", "failed")
+                .description("Outbox messages handled by the relay")
+                .register(meterRegistry);
+        parked = Counter.builder("notification.outbox.messages")
+                .tag("result", "parked")
+                .description("Outbox messages handled by the relay")
+                .register(meterRegistry);
+
+        running = true;
+        relayThread = new Thread(this::runRelay, "outbox-relay");
+        relayThread.setDaemon(true);
+        relayThread.start();
+    }
+
+    /**
+     * Record a queue notification and its outbox message in one transaction
+     */
+    public Notification enqueue(QueueNotificationRequest request) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize queue notification", e);
+        }
+
+        Notification notification = toNotification(request);
+        contentStore.externalize(List.of(notification));
+        if (shardedRepository != null) {
+            // The relay writes the notification to its shard, see the class comment
+            shardedRepository.assignIds(List.of(notification));
+            OutboxMessage message = new OutboxMessage(notification.getId(), payload);
+            message.setCreatedAt(notification.getCreatedAt());
+            outboxRepository.save(message);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> {
+                detailService.saveAll(List.of(notification));
+                outboxRepository.save(new OutboxMessage(notification.getId(), payload));
+            });
+        }
+
+        statsService.record(notification);
+        recentCache.record(notification);
+        searchIndex.add(notification);
+        wakeUp.release();
+        return notification;
+    }
+
+    /**
+     * Claim one batch, publish it outside any transaction and delete it once confirmed
+     *
+     * @return number of messages published
+     * @throws IllegalStateException if the batch could not be published; its rows are kept for a later attempt
+     */
+    public int relayBatch() {
+        List<Map<String, Object>> rows = claim();
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        List<QueueNotificationRequest> requests = new ArrayList<>(rows.size());
+        List<Notification> notifications = new ArrayList<>(rows.size());
+        Map<Long, String> unpublishable = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            Long id = ((Number) row.get("id")).longValue();
+            try {
+                QueueNotificationRequest request = objectMapper.readValue((String) row.get("payload"), QueueNotificationRequest.class);
+                Notification notification = toNotification(request);
+                notification.setId(((Number) row.get("notification_id")).longValue());
+                notification.setCreatedAt(((Timestamp) row.get("created_at")).toLocalDateTime());
+                requests.add(request);
+                notifications.add(notification);
+                ids.add(id);
+            } catch (JsonProcessingException e) {
+                unpublishable.put(id, e.getOriginalMessage());
+            }
+        }
+
+        Exception error = null;
+        try {
+            if (shardedRepository != null && !notifications.isEmpty()) {
+                contentStore.externalize(notifications);
+                detailService.saveAll(notifications);
+            }
+            publish(ids, requests, unpublishable);
+        } catch (Exception e) {
+            error = e;
+        }
+        park(unpublishable);
+
+        List<Long> sent = ids.stream().filter(id -> !unpublishable.containsKey(id)).toList();
+        if (sent.isEmpty()) {
+            return 0;
+        }
+        if (error != null) {
+            markFailed(sent, error);
+            failed.increment(sent.size());
+            throw new IllegalStateException("Failed to publish " + sent.size() + " outbox messages", error);
+        }
+        jdbcTemplate.update("DELETE FROM notification_outbox WHERE id IN (" + placeholders(sent.size()) + ")",
+                sent.toArray());
+        published.increment(sent.size());
+        return sent.size();
+    }
+
+    /**
+     * Stop the relay thread; unpublished rows stay for the next start
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        wakeUp.release();
+        try {
+            relayThread.join(confirmTimeoutMs + 5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Lock a batch of due rows, push them out by the lease and commit
+     */
+    private List<Map<String, Object>> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp leaseUntil = Timestamp.valueOf(now.plus(leaseMs, ChronoUnit.MILLIS));
+        return transactionTemplate.execute(status -> {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(CLAIM_SQL, Timestamp.valueOf(now), batchSize);
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE notification_outbox SET next_attempt_at = ? WHERE id = ?",
+                        rows.stream().map(row -> new Object[]{leaseUntil, row.get("id")}).toList());
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Publish the requests on one channel and wait once for confirms
+     * <p>
+     * A request the template cannot convert is recorded in {@code unpublishable}
+     * and skipped; any other error fails the whole batch.
+     */
+    private void publish(List<Long> ids, List<QueueNotificationRequest> requests, Map<Long, String> unpublishable) {
+        if (rabbitTemplate == null) {
+            // No broker configured: keep the previous behaviour of processing in-process
+            requests.forEach(queueService::processNotificationDirectly);
+            return;
+        }
+        rabbitTemplate.invoke(operations -> {
+            for (int i = 0; i < requests.size(); i++) {
+                try {
+                    operations.convertAndSend(RabbitMQConfig.NOTIFICATION_EXCHANGE,
+                            RabbitMQConfig.NOTIFICATION_ROUTING_KEY, requests.get(i));
+                } catch (MessageConversionException e) {
+                    unpublishable.put(ids.get(i), e.getMessage());
+                }
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+    }
+
+    /**
+     * Count a failed attempt: back off, or park the rows that have run out of attempts
+     */
+    private void markFailed(List<Long> ids, Exception error) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp next = Timestamp.valueOf(now.plus(failureBackoffMs, ChronoUnit.MILLIS));
+        List<Object> args = new ArrayList<>();
+        args.add(next);
+        args.add(truncate(error.getMessage()));
+        args.addAll(ids);
+        List<Object> parkArgs = new ArrayList<>();
+        parkArgs.add(Timestamp.valueOf(now));
+        parkArgs.addAll(ids);
+        parkArgs.add(maxAttempts);
+
+        Integer parkedRows = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("UPDATE notification_outbox SET attempts = attempts + 1, next_attempt_at = ?, " +
+                    "last_error = ? WHERE id IN (" + placeholders(ids.size()) + ")", args.toArray());
+            return jdbcTemplate.update("UPDATE notification_outbox SET parked_at = ?, next_attempt_at = NULL " +
+                    "WHERE id IN (" + placeholders(ids.size()) + ") AND attempts >= ?", parkArgs.toArray());
+        });
+        if (parkedRows != null && parkedRows > 0) {
+            parked.increment(parkedRows);
+            logger.warn("Parked {} outbox messages after {} attempts", parkedRows, maxAttempts);
+        }
+    }
+
+    /**
+     * Park rows that can never be published so they stop being claimed
+     */
+    private void park(Map<Long, String> unpublishable) {
+        if (unpublishable.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate("UPDATE notification_outbox SET attempts = attempts + 1, parked_at = ?, " +
+                        "next_attempt_at = NULL, last_error = ? WHERE id = ?",
+                unpublishable.entrySet().stream()
+                        .map(entry -> new Object[]{now, truncate(entry.getValue()), entry.getKey()})
+                        .toList());
+        parked.increment(unpublishable.size());
+        logger.warn("Parked {} unpublishable outbox messages: {}", unpublishable.size(), unpublishable.keySet());
+    }
+
+    private static Notification toNotification(QueueNotificationRequest request) {
+        return new Notification(NotificationType.QUEUE, request.getRecipient(),
+                request.getType() + ": " + request.getMessage(), NotificationStatus.QUEUED);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private void runRelay() {
+        while (running) {
+            try {
+                if (relayBatch() < batchSize) {
+                    wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    wakeUp.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Outbox relay failed, retrying in {} ms", failureBackoffMs, e);
+                try {
+                    Thread.sleep(failureBackoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+}
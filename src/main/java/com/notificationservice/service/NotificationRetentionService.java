@@ -0,0 +1,363 @@
+package com.notificationservice.service;
+
+import com.notificationservice.repository.ShardedNotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retention for the notifications table
+ * <p>
+ * On MySQL the table is range-partitioned by month (db/vendor/mysql/V8), so
+ * expired months are removed with DROP PARTITION, a metadata operation.
+ * Partitions for the coming months are split off p_future at startup and
+ * every {@code notification.retention.partition-cron}, whether or not the
+ * purge is enabled, so p_future stays empty and splitting it copies no rows.
+ * Elsewhere (H2), or if the table is not partitioned, expired rows are
+ * deleted in small id-ranged chunks, each its own short transaction, with a
+ * pause in between so purges never hold long locks or flood replicas.
+ * Detail rows left without a notification (dropped partitions) and stored
+ * content no longer referenced by any detail row are then removed in the
+ * same chunked way.
+ * <p>
+ * With notification sharding the chunked purge also runs on every shard, and
+ * stored content (on the primary) is only deleted once no shard refers to it.
+ */
+@Service
+public class NotificationRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    private static final String FUTURE_PARTITION = "p_future";
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final String PARTITIONS_SQL =
+            "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'notifications' AND PARTITION_NAME IS NOT NULL " +
+                    "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationContentStore contentStore;
+
+    @Autowired
+    private NotificationSearchIndex searchIndex;
+
+    @Autowired(required = false)
+    private ShardedNotificationRepository shardedRepository;
+
+    @Value("${notification.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.retention.days:180}")
+    private int retentionDays;
+
+    @Value("${notification.retention.partitions-ahead:3}")
+    private int partitionsAhead;
+
+    @Value("${notification.retention.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${notification.retention.chunk-pause-ms:100}")
+    private long chunkPauseMs;
+
+    @Value("${notification.retention.max-chunks-per-run:10000}")
+    private int maxChunksPerRun;
+
+    /**
+     * Purge notifications older than the retention period
+     */
+    @Scheduled(cron = "${notification.retention.cron:0 30 3 * * *}")
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        try {
+            List<Map<String, Object>> partitions = isMySql() ? jdbcTemplate.queryForList(PARTITIONS_SQL) : List.of();
+            if (partitions.isEmpty()) {
+                long deleted = deleteInChunks(cutoff);
+                logger.info("Retention purge deleted {} notifications created before {}", deleted, cutoff);
+            } else {
+                int dropped = dropExpiredPartitions(partitions, cutoff);
+                logger.info("Retention purge dropped {} partitions older than {}", dropped, cutoff);
+            }
+
+            long orphanedDetails = deleteOrphanedDetails();
+            if (orphanedDetails > 0) {
+                logger.info("Retention purge deleted {} orphaned notification details", orphanedDetails);
+            }
+
+            long orphans = deleteOrphanedContent(cutoff);
+            if (orphans > 0) {
+                contentStore.clearCaches();
+                logger.info("Retention purge deleted {} unreferenced notification contents", orphans);
+            }
+
+            int segments = searchIndex.dropBefore(cutoff);
+            if (segments > 0) {
+                logger.info("Retention purge deleted {} search index segments", segments);
+            }
+        } catch (Exception e) {
+            logger.error("Retention purge failed", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintainPartitions();
+    }
+
+    /**
+     * Keep {@code partitions-ahead} monthly partitions in front of the current month (MySQL only)
+     */
+    @Scheduled(cron = "${notification.retention.partition-cron:0 0 * * * *}")
+    public void maintainPartitions() {
+        try {
+            if (!isMySql()) {
+                return;
+            }
+            List<Map<String, Object>> partitions = jdbcTemplate.queryForList(PARTITIONS_SQL);
+            if (!partitions.isEmpty()) {
+                addFuturePartitions(partitions);
+            }
+        } catch (Exception e) {
+            logger.error("Notifications partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * Delete rows created before the cutoff on the primary and every shard, walking the id range in chunks
+     *
+     * @return number of rows deleted
+     */
+    public long deleteInChunks(LocalDateTime cutoff) {
+        long deleted = 0;
+        for (JdbcTemplate jdbcTemplate : notificationDatabases()) {
+            deleted += deleteInChunks(jdbcTemplate, cutoff);
+        }
+        return deleted;
+    }
+
+    private long deleteInChunks(JdbcTemplate jdbcTemplate, LocalDateTime cutoff) {
+        Timestamp cutoffTs = Timestamp.valueOf(cutoff);
+        Long minId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM notifications WHERE created_at < ?", Long.class, cutoffTs);
+        Long maxId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM notifications WHERE created_at < ?", Long.class, cutoffTs);
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        long deleted = 0;
+        int chunks = 0;
+        for (long from = minId; from <= maxId && chunks < maxChunksPerRun; from += chunkSize, chunks++) {
+            jdbcTemplate.update(
+                    "DELETE FROM notification_details WHERE notification_id IN (SELECT id FROM notifications " +
+                            "WHERE id >= ? AND id < ? AND created_at < ?)",
+                    from, from + chunkSize, cutoffTs);
+            deleted += jdbcTemplate.update(
+                    "DELETE FROM notifications WHERE id >= ? AND id < ? AND created_at < ?",
+                    from, from + chunkSize, cutoffTs);
+            if (from + chunkSize <= maxId && !pause()) {
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Delete detail rows below the oldest remaining notification id
+     * <p>
+     * Partition drops remove notifications without their details. Ids are
+     * allocated in increasing blocks and retention removes the oldest rows,
+     * so anything below the lowest surviving id has lost its notification.
+     *
+     * @return number of detail rows deleted
+     */
+    public long deleteOrphanedDetails() {
+        long deleted = 0;
+        for (JdbcTemplate jdbcTemplate : notificationDatabases()) {
+            deleted += deleteOrphanedDetails(jdbcTemplate);
+        }
+        return deleted;
+    }
+
+    private long deleteOrphanedDetails(JdbcTemplate jdbcTemplate) {
+        Long lowestNotificationId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM notifications", Long.class);
+        Long lowestDetailId = jdbcTemplate.queryForObject(
+                "SELECT MIN(notification_id) FROM notification_details", Long.class);
+        if (lowestNotificationId == null || lowestDetailId == null) {
+            return 0;
+        }
+
+        long deleted = 0;
+        int chunks = 0;
+        for (long from = lowestDetailId; from < lowestNotificationId && chunks < maxChunksPerRun;
+             from += chunkSize, chunks++) {
+            long to = Math.min(from + chunkSize, lowestNotificationId);
+            deleted += jdbcTemplate.update(
+                    "DELETE FROM notification_details WHERE notification_id >= ? AND notification_id < ?", from, to);
+            if (to < lowestNotificationId && !pause()) {
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Delete stored content last used before the cutoff that no detail row references any more
+     *
+     * @return number of contents deleted
+     */
+    public long deleteOrphanedContent(LocalDateTime cutoff) {
+        Timestamp cutoffTs = Timestamp.valueOf(cutoff);
+        long deleted = 0;
+        String after = "";
+        for (int chunks = 0; chunks < maxChunksPerRun; chunks++) {
+            // Walk the hashes in order: candidates still referenced on a shard are not deleted and must not come back
+            List<String> hashes = jdbcTemplate.queryForList(
+                    "SELECT c.content_hash FROM notification_contents c WHERE c.content_hash > ? AND c.created_at < ? " +
+                            "AND NOT EXISTS (SELECT 1 FROM notification_details d WHERE d.content_hash = c.content_hash) " +
+                            "ORDER BY c.content_hash LIMIT ?",
+                    String.class, after, cutoffTs, chunkSize);
+            if (hashes.isEmpty()) {
+                break;
+            }
+            after = hashes.get(hashes.size() - 1);
+
+            List<String> unreferenced = new ArrayList<>(hashes);
+            if (shardedRepository != null) {
+                unreferenced.removeAll(shardedRepository.findReferencedContentHashes(hashes));
+            }
+            if (!unreferenced.isEmpty()) {
+                // Re-check age and references in the DELETE itself in case a writer reused a body meanwhile;
+                // a shard writer reusing one refreshes created_at first (see NotificationContentStore)
+                String placeholders = String.join(",", Collections.nCopies(unreferenced.size(), "?"));
+                List<Object> args = new ArrayList<>(unreferenced);
+                args.add(cutoffTs);
+                deleted += jdbcTemplate.update(
+                        "DELETE FROM notification_contents WHERE content_hash IN (" + placeholders + ") AND created_at < ? " +
+                                "AND NOT EXISTS (SELECT 1 FROM notification_details d WHERE d.content_hash = notification_contents.content_hash)",
+                        args.toArray());
+            }
+            if (hashes.size() < chunkSize || !pause()) {
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Drop partitions whose upper bound is at or before the cutoff
+     */
+    private int dropExpiredPartitions(List<Map<String, Object>> partitions, LocalDateTime cutoff) {
+        long cutoffEpoch = cutoff.atZone(ZoneId.systemDefault()).toEpochSecond();
+        int dropped = 0;
+        for (Map<String, Object> partition : partitions) {
+            String name = (String) partition.get("PARTITION_NAME");
+            String bound = String.valueOf(partition.get("PARTITION_DESCRIPTION"));
+            if (FUTURE_PARTITION.equals(name) || "MAXVALUE".equalsIgnoreCase(bound)) {
+                continue;
+            }
+            if (Long.parseLong(bound) <= cutoffEpoch) {
+                jdbcTemplate.execute("ALTER TABLE notifications DROP PARTITION " + name);
+                logger.info("Dropped expired notifications partition {}", name);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Split monthly partitions off p_future so inserts never land in it
+     */
+    private void addFuturePartitions(List<Map<String, Object>> partitions) {
+        long highestBound = 0;
+        for (Map<String, Object> partition : partitions) {
+            String bound = String.valueOf(partition.get("PARTITION_DESCRIPTION"));
+            if (!"MAXVALUE".equalsIgnoreCase(bound)) {
+                highestBound = Math.max(highestBound, Long.parseLong(bound));
+            }
+        }
+
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        LocalDate lastMonth = month.plusMonths(partitionsAhead);
+        StringBuilder definitions = new StringBuilder();
+        for (; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            LocalDate end = month.plusMonths(1);
+            if (end.atStartOfDay(ZoneId.systemDefault()).toEpochSecond() <= highestBound) {
+                continue;
+            }
+            definitions.append("PARTITION ").append(month.format(PARTITION_NAME))
+                    .append(" VALUES LESS THAN (UNIX_TIMESTAMP('").append(end).append(" 00:00:00')), ");
+        }
+
+        if (definitions.length() > 0) {
+            // Only reached with rows in p_future if maintenance was down for partitions-ahead months
+            Long stray = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM notifications PARTITION (" + FUTURE_PARTITION + ")", Long.class);
+            if (stray != null && stray > 0) {
+                logger.warn("{} notifications are in {}; splitting it copies them under a table lock",
+                        stray, FUTURE_PARTITION);
+            }
+            jdbcTemplate.execute("ALTER TABLE notifications REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO ("
+                    + definitions + "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE)");
+            logger.info("Added notifications partitions up to {}", lastMonth.format(PARTITION_NAME));
+        }
+    }
+
+    /**
+     * The primary, followed by every shard when notifications are sharded
+     */
+    private List<JdbcTemplate> notificationDatabases() {
+        if (shardedRepository == null) {
+            return List.of(jdbcTemplate);
+        }
+        List<JdbcTemplate> databases = new ArrayList<>(shardedRepository.getJdbcTemplates());
+        databases.add(0, jdbcTemplate);
+        return databases;
+    }
+
+    /**
+     * Sleep between chunks; returns false if interrupted
+     */
+    private boolean pause() {
+        if (chunkPauseMs > 0) {
+            try {
+                Thread.sleep(chunkPauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isMySql() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return product != null && product.toLowerCase().contains("mysql");
+    }
+}
@@ -0,0 +1,294 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.model.dto.EmailNotificationRequest;
+import com.notificationservice.model.dto.QueueNotificationRequest;
+import com.notificationservice.model.dto.RealtimeNotificationRequest;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries failed notification deliveries
+ * <p>
+ * A failed send is recorded with its serialized request, attempts = 1 and a
+ * next_attempt_at. Every node polls for due rows and claims a small batch
+ * with SELECT ... FOR UPDATE SKIP LOCKED, so nodes never wait on each other
+ * or claim the same row. Claimed rows get their next_attempt_at pushed out
+ * by a lease and the claim commits immediately; delivery runs outside any
+ * transaction, and a node that dies mid-batch leaves the rows to be picked
+ * up again once the lease expires. PENDING rows are claimed the same way
+ * once their next_attempt_at passes, which only happens when the node that
+ * was sending them never reported an outcome.
+ * <p>
+ * Failed attempts back off exponentially from
+ * {@code notification.retry.initial-backoff-ms}, capped at
+ * {@code notification.retry.max-backoff-ms}, with random jitter so retries
+ * of a burst of failures spread out. After
+ * {@code notification.retry.max-attempts} the row stays FAILED with no
+ * next_attempt_at.
+ */
+@Service
+public class NotificationRetryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetryService.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private static final String CLAIM_SQL =
+            "SELECT id FROM notifications WHERE status IN (" + NotificationStatus.FAILED.getCode() + ", " +
+                    NotificationStatus.PENDING.getCode() + ") AND next_attempt_at <= ? " +
+                    "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationDetailService detailService;
+
+    @Autowired
+    private NotificationStatsService statsService;
+
+    @Autowired
+    private RecentNotificationCache recentCache;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private QueueService queueService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.retry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.retry.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notification.retry.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${notification.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notification.retry.initial-backoff-ms:30000}")
+    private long initialBackoffMs;
+
+    @Value("${notification.retry.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${notification.retry.lease-ms:300000}")
+    private long leaseMs;
+
+    private Counter delivered;
+
+    private Counter failed;
+
+    private Counter exhausted;
+
+    @PostConstruct
+    public void init() {
+        delivered = Counter.builder("notification.retry.attempts")
+                .tag("result", "delivered")
+                .description("Notification delivery retries")
+                .register(meterRegistry);
+        failed = Counter.builder("notification.retry.attempts")
+                .tag("result", "failed")
+                .description("Notification delivery retries")
+                .register(meterRegistry);
+        exhausted = Counter.builder("notification.retry.attempts")
+                .tag("result", "exhausted")
+                .description("Notification delivery retries")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Prepare a new FAILED record for retry: keep the request and schedule the second attempt
+     */
+    public void schedule(Notification notification, Object request, Exception error) {
+        notification.setAttempts(1);
+        notification.setErrorMessage(truncate(error != null ? error.getMessage() : null));
+        if (!enabled || request == null) {
+            return;
+        }
+        try {
+            notification.setPayload(objectMapper.writeValueAsString(request));
+            notification.setNextAttemptAt(LocalDateTime.now().plus(backoffMillis(1), ChronoUnit.MILLIS));
+        } catch (Exception e) {
+            logger.error("Failed to serialize {} request for retry", notification.getType(), e);
+        }
+    }
+
+    /**
+     * Retry due notifications, one claimed batch at a time
+     */
+    @Scheduled(fixedDelayString = "${notification.retry.poll-interval-ms:10000}")
+    public void retryDue() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (int batches = 0; batches < maxBatchesPerRun; batches++) {
+                if (retryBatch() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Notification retry run failed", e);
+        }
+    }
+
+    /**
+     * Claim and re-dispatch one batch of due notifications
+     *
+     * @return number of notifications claimed
+     */
+    public int retryBatch() {
+        List<Long> ids = claim();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Read-write so the rows just claimed are read from the primary, never a lagging replica
+        List<Notification> notifications = transactionTemplate.execute(status -> {
+            List<Notification> loaded = notificationRepository.findAllById(ids);
+            detailService.attach(loaded);
+            return loaded;
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Notification, NotificationStatus> previousStatus = new IdentityHashMap<>();
+        List<Object[]> successRows = new ArrayList<>();
+        List<Object[]> failureRows = new ArrayList<>();
+        List<Object[]> errorRows = new ArrayList<>();
+        for (Notification notification : notifications) {
+            int attempt = notification.getAttempts() + 1;
+            NotificationStatus fromStatus = notification.getStatus();
+            try {
+                dispatch(notification);
+                NotificationStatus status = notification.getType() == NotificationType.QUEUE
+                        ? NotificationStatus.QUEUED : NotificationStatus.SENT;
+                notification.setStatus(status);
+                successRows.add(new Object[]{status.getCode(), attempt, Timestamp.valueOf(now), notification.getId()});
+                delivered.increment();
+            } catch (Exception e) {
+                Timestamp next = null;
+                if (attempt < maxAttempts && notification.getPayload() != null) {
+                    next = Timestamp.valueOf(now.plus(backoffMillis(attempt), ChronoUnit.MILLIS));
+                    failed.increment();
+                } else {
+                    exhausted.increment();
+                    logger.warn("Giving up on notification {} after {} attempts", notification.getId(), attempt);
+                }
+                notification.setStatus(NotificationStatus.FAILED);
+                failureRows.add(new Object[]{NotificationStatus.FAILED.getCode(), attempt, next, notification.getId()});
+                errorRows.add(new Object[]{truncate(e.getMessage()), notification.getId()});
+            }
+            if (notification.getStatus() != fromStatus) {
+                previousStatus.put(notification, fromStatus);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!successRows.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE notifications SET status = ?, attempts = ?, sent_at = ?, " +
+                        "next_attempt_at = NULL WHERE id = ?", successRows);
+            }
+            if (!failureRows.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE notifications SET status = ?, attempts = ?, " +
+                        "next_attempt_at = ? WHERE id = ?", failureRows);
+                jdbcTemplate.batchUpdate("UPDATE notification_details SET error_message = ? WHERE notification_id = ?",
+                        errorRows);
+            }
+        });
+        previousStatus.forEach(statsService::transition);
+        previousStatus.keySet().forEach(recentCache::update);
+
+        logger.info("Retried {} notifications: {} delivered, {} failed",
+                notifications.size(), successRows.size(), failureRows.size());
+        return ids.size();
+    }
+
+    /**
+     * Lock a batch of due rows, push them out by the lease and commit
+     */
+    private List<Long> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp leaseUntil = Timestamp.valueOf(now.plus(leaseMs, ChronoUnit.MILLIS));
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(CLAIM_SQL, Long.class, Timestamp.valueOf(now), batchSize);
+            if (!ids.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE notifications SET next_attempt_at = ? WHERE id = ?",
+                        ids.stream().map(id -> new Object[]{leaseUntil, id}).toList());
+            }
+            return ids;
+        });
+    }
+
+    private void dispatch(Notification notification) throws Exception {
+        String payload = notification.getPayload();
+        if (payload == null) {
+            throw new IllegalStateException("No stored request to retry");
+        }
+        switch (notification.getType()) {
+            case EMAIL -> emailService.sendEmail(objectMapper.readValue(payload, EmailNotificationRequest.class));
+            case WEBSOCKET -> {
+                RealtimeNotificationRequest request = objectMapper.readValue(payload, RealtimeNotificationRequest.class);
+                webSocketService.sendNotification(request.getTopic(), request.getMessage());
+            }
+            case QUEUE -> queueService.sendToQueue(objectMapper.readValue(payload, QueueNotificationRequest.class));
+            default -> throw new IllegalStateException("Unknown notification type: " + notification.getType());
+        }
+    }
+
+    /**
+     * Delay before the attempt after {@code attempt}: exponential, capped, with equal jitter
+     */
+    long backoffMillis(int attempt) {
+        long backoff = initialBackoffMs << Math.min(attempt - 1, 30);
+        if (backoff <= 0 || backoff > maxBackoffMs) {
+            backoff = maxBackoffMs;
+        }
+        long half = backoff / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -0,0 +1,694 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.repository.ShardedNotificationRepository;
+import com.notificationservice.util.IndexSegment;
+import com.notificationservice.util.IndexSegmentReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Embedded full-text index over notification content
+ * <p>
+ * Every notification written through this node is queued here after it is
+ * persisted and picked up by the "search-indexer" thread, which adds it to an
+ * in-memory segment that is searchable straight away. Once that segment
+ * holds {@code notification.search.flush-docs} docs, or has been open for
+ * {@code notification.search.flush-interval-ms}, it is written to
+ * {@code notification.search.directory} as an immutable, memory-mapped
+ * segment file (see IndexSegment). When there are more than
+ * {@code notification.search.merge-factor} segments the smallest are merged,
+ * and segments entirely older than the retention cutoff are deleted.
+ * <p>
+ * A search intersects the postings of the query's words, applies the
+ * recipient/type/time filters from the segments' doc tables, then loads the
+ * newest candidates and keeps those whose content contains the words as a
+ * phrase, so rows deleted since they were indexed never show up. On startup
+ * rows newer than the highest indexed id are indexed from the database.
+ * <p>
+ * Writes from this node reach the index through the queue, which drops (and
+ * counts) docs past {@code notification.search.queue-capacity}. Rows written
+ * by other nodes, rows committed with an id below one already indexed, and
+ * dropped docs are picked up by a reconcile pass every
+ * {@code notification.search.reconcile-interval-ms}: it reads the rows
+ * created in the last {@code notification.search.reconcile-window-ms} from
+ * the database and indexes those the index does not hold yet. A row is
+ * therefore searchable on every node within one reconcile interval of being
+ * written, as long as it is written within the window of its created_at.
+ * Catch-up and reconcile read the primary and, with notification sharding,
+ * every shard.
+ */
+@Service
+public class NotificationSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationSearchIndex.class);
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d+)\\.seg");
+
+    private static final String CATCH_UP_SQL =
+            "SELECT n.id, n.type, n.recipient, n.created_at, d.content, d.content_hash " +
+                    "FROM notifications n LEFT JOIN notification_details d ON d.notification_id = n.id " +
+                    "WHERE n.id > ? ORDER BY n.id";
+
+    private static final String RECONCILE_SQL =
+            "SELECT n.id, n.type, n.recipient, n.created_at, d.content, d.content_hash " +
+                    "FROM notifications n LEFT JOIN notification_details d ON d.notification_id = n.id " +
+                    "WHERE n.created_at >= ? ORDER BY n.created_at, n.id";
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationDetailService detailService;
+
+    @Autowired
+    private NotificationContentStore contentStore;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired(required = false)
+    private ShardedNotificationRepository shardedRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.search.directory:data/search-index}")
+    private String directory;
+
+    @Value("${notification.search.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${notification.search.flush-docs:10000}")
+    private int flushDocs;
+
+    @Value("${notification.search.flush-interval-ms:60000}")
+    private long flushIntervalMs;
+
+    @Value("${notification.search.merge-factor:10}")
+    private int mergeFactor;
+
+    @Value("${notification.search.max-merge-docs:1000000}")
+    private int maxMergeDocs;
+
+    @Value("${notification.search.max-candidates:5000}")
+    private int maxCandidates;
+
+    @Value("${notification.search.catch-up:true}")
+    private boolean catchUp;
+
+    @Value("${notification.search.reconcile-interval-ms:300000}")
+    private long reconcileIntervalMs;
+
+    @Value("${notification.search.reconcile-window-ms:900000}")
+    private long reconcileWindowMs;
+
+    private Path indexDirectory;
+
+    /** Guards live, segments and nextGeneration */
+    private final Object lock = new Object();
+
+    private IndexSegment.Builder live = new IndexSegment.Builder();
+
+    private long liveOpenedAt;
+
+    /** Written only under lock; read without it as a snapshot */
+    private volatile List<IndexSegment> segments = List.of();
+
+    private long nextGeneration = 1;
+
+    private final Queue<QueuedDoc> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Semaphore wakeUp = new Semaphore(0);
+
+    private Thread indexerThread;
+
+    private volatile boolean running;
+
+    private Counter indexed;
+
+    private Counter dropped;
+
+    private Counter reconciled;
+
+    private record QueuedDoc(long id, long createdAt, String recipient, String type, String content, long queuedAt) {
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        indexDirectory = Paths.get(directory);
+        Files.createDirectories(indexDirectory);
+        openSegments();
+
+        indexed = Counter.builder("notification.search.index.docs.indexed")
+                .description("Notifications added to the search index")
+                .register(meterRegistry);
+        dropped = Counter.builder("notification.search.index.docs.dropped")
+                .description("Notifications not indexed because the index queue was full")
+                .register(meterRegistry);
+        reconciled = Counter.builder("notification.search.index.docs.reconciled")
+                .description("Notifications indexed by the reconcile pass rather than the queue")
+                .register(meterRegistry);
+        Gauge.builder("notification.search.index.lag", this, NotificationSearchIndex::lagMillis)
+                .description("Age of the oldest notification waiting to be indexed")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("notification.search.index.pending", queued, AtomicInteger::get)
+                .description("Notifications waiting to be indexed")
+                .register(meterRegistry);
+        Gauge.builder("notification.search.index.size", this, NotificationSearchIndex::sizeInBytes)
+                .description("Size of the search index segment files")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("notification.search.index.docs", this, NotificationSearchIndex::docCount)
+                .description("Notifications in the search index")
+                .register(meterRegistry);
+        Gauge.builder("notification.search.index.segments", this, index -> index.segments.size())
+                .description("Search index segment files")
+                .register(meterRegistry);
+
+        if (enabled) {
+            running = true;
+            indexerThread = new Thread(this::runIndexer, "search-indexer");
+            indexerThread.setDaemon(true);
+            indexerThread.start();
+        }
+    }
+
+    /**
+     * Queue persisted notifications for indexing; never throws
+     */
+    public void add(Collection<Notification> notifications) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Notification notification : notifications) {
+            if (notification.getId() == null) {
+                continue;
+            }
+            if (queued.incrementAndGet() > queueCapacity) {
+                queued.decrementAndGet();
+                dropped.increment();
+                continue;
+            }
+            queue.add(new QueuedDoc(notification.getId(), toMillis(notification.getCreatedAt()),
+                    notification.getRecipient(), notification.getType().name(), notification.getContent(), now));
+        }
+        wakeUp.release();
+    }
+
+    public void add(Notification notification) {
+        add(List.of(notification));
+    }
+
+    /**
+     * Index everything queued so far on the calling thread
+     */
+    public void indexPending() {
+        synchronized (lock) {
+            QueuedDoc doc;
+            while ((doc = queue.poll()) != null) {
+                queued.decrementAndGet();
+                addToLive(doc.id(), doc.createdAt(), doc.recipient(), doc.type(), doc.content());
+            }
+        }
+    }
+
+    /**
+     * Write the in-memory segment to disk
+     */
+    public void flush() throws IOException {
+        synchronized (lock) {
+            if (live.docCount() == 0) {
+                return;
+            }
+            long generation = nextGeneration++;
+            IndexSegment segment = live.write(segmentFile(generation), generation, new long[0]);
+            List<IndexSegment> updated = new ArrayList<>(segments);
+            updated.add(segment);
+            segments = List.copyOf(updated);
+            live = new IndexSegment.Builder();
+        }
+    }
+
+    /**
+     * Merge the smallest segments while there are more than the merge factor
+     */
+    public void mergeIfNeeded() throws IOException {
+        List<IndexSegment> snapshot = segments;
+        if (snapshot.size() <= mergeFactor) {
+            return;
+        }
+
+        List<IndexSegment> bySize = new ArrayList<>(snapshot);
+        bySize.sort(Comparator.comparingInt(IndexSegment::docCount));
+        List<IndexSegment> toMerge = new ArrayList<>();
+        long docs = 0;
+        for (IndexSegment segment : bySize) {
+            if (toMerge.size() == mergeFactor || docs + segment.docCount() > maxMergeDocs) {
+                break;
+            }
+            toMerge.add(segment);
+            docs += segment.docCount();
+        }
+        if (toMerge.size() < 2) {
+            return;
+        }
+
+        long generation;
+        synchronized (lock) {
+            generation = nextGeneration++;
+        }
+        long[] mergedFrom = toMerge.stream().mapToLong(IndexSegment::getGeneration).toArray();
+        IndexSegment merged = IndexSegment.merge(toMerge, segmentFile(generation), generation, mergedFrom);
+
+        synchronized (lock) {
+            List<IndexSegment> updated = new ArrayList<>(segments);
+            updated.removeAll(toMerge);
+            updated.add(merged);
+            segments = List.copyOf(updated);
+        }
+        toMerge.forEach(this::deleteFile);
+        logger.info("Merged {} search index segments into one of {} docs", toMerge.size(), merged.docCount());
+    }
+
+    /**
+     * Delete segments whose every doc was created before the cutoff
+     *
+     * @return number of segments deleted
+     */
+    public int dropBefore(LocalDateTime cutoff) {
+        long cutoffMillis = toMillis(cutoff);
+        List<IndexSegment> expired;
+        synchronized (lock) {
+            expired = segments.stream().filter(segment -> segment.getMaxCreatedAt() < cutoffMillis).toList();
+            if (expired.isEmpty()) {
+                return 0;
+            }
+            List<IndexSegment> updated = new ArrayList<>(segments);
+            updated.removeAll(expired);
+            segments = List.copyOf(updated);
+        }
+        expired.forEach(this::deleteFile);
+        return expired.size();
+    }
+
+    /**
+     * Notifications whose content contains {@code text} as a phrase, newest first
+     *
+     * @param from inclusive lower bound on created_at, or null
+     * @param to exclusive upper bound on created_at, or null
+     * @throws IllegalArgumentException if the text has no searchable words
+     */
+    public List<Notification> search(String text, String recipient, String type,
+                                     LocalDateTime from, LocalDateTime to, int limit) {
+        List<String> phrase = IndexSegment.tokens(text);
+        if (phrase.isEmpty()) {
+            throw new IllegalArgumentException("Search text must contain at least one letter or digit");
+        }
+        List<String> terms = phrase.stream().distinct().toList();
+        Filter filter = new Filter(blankToNull(recipient), blankToNull(type),
+                from != null ? toMillis(from) : Long.MIN_VALUE, to != null ? toMillis(to) : Long.MAX_VALUE);
+
+        TreeSet<Long> candidates = new TreeSet<>(Comparator.reverseOrder());
+        synchronized (lock) {
+            collect(live, terms, filter, candidates);
+        }
+        for (IndexSegment segment : segments) {
+            collect(segment, terms, filter, candidates);
+        }
+
+        List<Notification> results = new ArrayList<>(limit);
+        List<Long> ids = new ArrayList<>(candidates);
+        int chunk = Math.max(limit, 50);
+        for (int start = 0; start < ids.size() && results.size() < limit; start += chunk) {
+            List<Long> page = ids.subList(start, Math.min(start + chunk, ids.size()));
+            List<Notification> loaded = new ArrayList<>(shardedRepository != null
+                    ? shardedRepository.findAllById(page) : notificationRepository.findAllById(page));
+            detailService.attach(loaded);
+            loaded.sort(Comparator.comparing(Notification::getId, Comparator.reverseOrder()));
+            for (Notification notification : loaded) {
+                if (containsPhrase(IndexSegment.tokens(notification.getContent()), phrase)) {
+                    results.add(notification);
+                    if (results.size() == limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    public long lagMillis() {
+        QueuedDoc oldest = queue.peek();
+        return oldest != null ? Math.max(0, System.currentTimeMillis() - oldest.queuedAt()) : 0;
+    }
+
+    public long sizeInBytes() {
+        return segments.stream().mapToLong(IndexSegment::sizeInBytes).sum();
+    }
+
+    public long docCount() {
+        long docs = segments.stream().mapToLong(IndexSegment::docCount).sum();
+        synchronized (lock) {
+            return docs + live.docCount();
+        }
+    }
+
+    /**
+     * Stop the indexer and write what it holds
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        wakeUp.release();
+        if (indexerThread != null) {
+            try {
+                indexerThread.join(10000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            indexPending();
+            flush();
+        } catch (Exception e) {
+            logger.error("Failed to write the search index at shutdown", e);
+        }
+    }
+
+    /**
+     * Index rows newer than the highest indexed id, streaming them from the database
+     *
+     * @return number of rows indexed
+     */
+    public long catchUp() {
+        long fromId = segments.stream().mapToLong(IndexSegment::getMaxId).max().orElse(0);
+        return indexFromDatabase(CATCH_UP_SQL, null, fromId);
+    }
+
+    /**
+     * Index rows created within the reconcile window that the index does not hold
+     * <p>
+     * Runs on the indexer thread, after the queue has been drained, so a doc this
+     * node queued is normally found in the index rather than indexed twice; a rare
+     * duplicate only costs space, since search collapses candidates by id.
+     *
+     * @return number of rows indexed
+     */
+    public long reconcile() {
+        indexPending();
+        long windowStart = System.currentTimeMillis() - reconcileWindowMs;
+        Set<Long> present = new HashSet<>();
+        List<IndexSegment> snapshot;
+        synchronized (lock) {
+            collectIds(live, windowStart, present);
+            snapshot = segments;
+        }
+        for (IndexSegment segment : snapshot) {
+            if (segment.getMaxCreatedAt() >= windowStart) {
+                collectIds(segment, windowStart, present);
+            }
+        }
+        long count = indexFromDatabase(RECONCILE_SQL, present, new Timestamp(windowStart));
+        reconciled.increment(count);
+        return count;
+    }
+
+    private static void collectIds(IndexSegmentReader segment, long windowStart, Set<Long> ids) {
+        for (int doc = 0; doc < segment.docCount(); doc++) {
+            if (segment.createdAt(doc) >= windowStart) {
+                ids.add(segment.id(doc));
+            }
+        }
+    }
+
+    /**
+     * Stream rows from the primary and every shard into the live segment, skipping ids in {@code skip}
+     */
+    private long indexFromDatabase(String sql, Set<Long> skip, Object arg) {
+        List<DataSource> databases = new ArrayList<>();
+        databases.add(dataSource);
+        if (shardedRepository != null) {
+            databases.addAll(shardedRepository.getDataSources());
+        }
+
+        List<Notification> chunk = new ArrayList<>(500);
+        long[] count = {0};
+        for (DataSource database : databases) {
+            JdbcTemplate cursorTemplate = new JdbcTemplate(database);
+            cursorTemplate.setFetchSize(1000);
+            cursorTemplate.query(sql, rs -> {
+                long id = rs.getLong("id");
+                if (skip != null && skip.contains(id)) {
+                    return;
+                }
+                Notification notification = new Notification();
+                notification.setId(id);
+                notification.setType(NotificationType.fromCode(rs.getInt("type")));
+                notification.setRecipient(rs.getString("recipient"));
+                notification.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                notification.setContent(rs.getString("content"));
+                notification.setContentHash(rs.getString("content_hash"));
+                chunk.add(notification);
+                if (chunk.size() == 500) {
+                    count[0] += indexChunk(chunk);
+                }
+            }, arg);
+        }
+        count[0] += indexChunk(chunk);
+        return count[0];
+    }
+
+    private long indexChunk(List<Notification> chunk) {
+        contentStore.resolve(chunk);
+        synchronized (lock) {
+            for (Notification notification : chunk) {
+                addToLive(notification.getId(), toMillis(notification.getCreatedAt()), notification.getRecipient(),
+                        notification.getType().name(), notification.getContent());
+            }
+        }
+        int size = chunk.size();
+        chunk.clear();
+        return size;
+    }
+
+    /** Caller holds lock */
+    private void addToLive(long id, long createdAt, String recipient, String type, String content) {
+        if (live.docCount() == 0) {
+            liveOpenedAt = System.currentTimeMillis();
+        }
+        live.add(id, createdAt, recipient, type, content);
+        indexed.increment();
+        if (live.docCount() >= flushDocs) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void runIndexer() {
+        if (catchUp) {
+            try {
+                long caughtUp = catchUp();
+                if (caughtUp > 0) {
+                    logger.info("Search index caught up on {} notifications", caughtUp);
+                }
+            } catch (Exception e) {
+                logger.error("Search index catch-up failed", e);
+            }
+        }
+
+        long lastReconcile = System.currentTimeMillis();
+        while (running) {
+            try {
+                wakeUp.tryAcquire(Math.min(1000, flushIntervalMs), TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+                indexPending();
+                if (System.currentTimeMillis() - lastReconcile >= reconcileIntervalMs) {
+                    lastReconcile = System.currentTimeMillis();
+                    long picked = reconcile();
+                    if (picked > 0) {
+                        logger.info("Search index reconcile picked up {} notifications", picked);
+                    }
+                }
+                boolean due;
+                synchronized (lock) {
+                    due = live.docCount() > 0 && System.currentTimeMillis() - liveOpenedAt >= flushIntervalMs;
+                }
+                if (due) {
+                    flush();
+                }
+                mergeIfNeeded();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Search indexer loop failed", e);
+            }
+        }
+    }
+
+    private void openSegments() throws IOException {
+        List<IndexSegment> opened = new ArrayList<>();
+        try (Stream<Path> files = Files.list(indexDirectory)) {
+            for (Path file : files.sorted().toList()) {
+                Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                } else if (matcher.matches()) {
+                    long generation = Long.parseLong(matcher.group(1));
+                    opened.add(IndexSegment.open(file, generation));
+                    nextGeneration = Math.max(nextGeneration, generation + 1);
+                }
+            }
+        }
+
+        // A merge that crashed before deleting its inputs leaves them behind
+        Set<Long> superseded = new HashSet<>();
+        for (IndexSegment segment : opened) {
+            Arrays.stream(segment.getMergedFrom()).forEach(superseded::add);
+        }
+        List<IndexSegment> current = new ArrayList<>();
+        for (IndexSegment segment : opened) {
+            if (superseded.contains(segment.getGeneration())) {
+                deleteFile(segment);
+            } else {
+                current.add(segment);
+            }
+        }
+        segments = List.copyOf(current);
+        logger.info("Opened {} search index segments in {}", current.size(), indexDirectory.toAbsolutePath());
+    }
+
+    private Path segmentFile(long generation) {
+        return indexDirectory.resolve(String.format("segment-%012d.seg", generation));
+    }
+
+    private void deleteFile(IndexSegment segment) {
+        try {
+            Files.deleteIfExists(segment.getFile());
+        } catch (IOException e) {
+            logger.warn("Failed to delete search index segment {}", segment.getFile(), e);
+        }
+    }
+
+    private record Filter(String recipient, String type, long from, long to) {
+
+        boolean matches(IndexSegmentReader segment, int doc) {
+            long createdAt = segment.createdAt(doc);
+            return createdAt >= from && createdAt < to
+                    && (recipient == null || recipient.equals(segment.recipient(doc)))
+                    && (type == null || type.equals(segment.type(doc)));
+        }
+    }
+
+    private void collect(IndexSegmentReader segment, List<String> terms, Filter filter, TreeSet<Long> candidates) {
+        int[][] postings = new int[terms.size()][];
+        for (int i = 0; i < postings.length; i++) {
+            postings[i] = segment.postings(terms.get(i));
+            if (postings[i].length == 0) {
+                return;
+            }
+        }
+        Arrays.sort(postings, Comparator.comparingInt(list -> list.length));
+
+        int[] docs = postings[0];
+        for (int i = 1; i < postings.length && docs.length > 0; i++) {
+            docs = intersect(docs, postings[i]);
+        }
+
+        for (int i = docs.length - 1; i >= 0; i--) {
+            if (!filter.matches(segment, docs[i])) {
+                continue;
+            }
+            long id = segment.id(docs[i]);
+            if (candidates.size() < maxCandidates) {
+                candidates.add(id);
+            } else if (id > candidates.last()) {
+                candidates.add(id);
+                candidates.pollLast();
+            }
+        }
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static boolean containsPhrase(List<String> words, List<String> phrase) {
+        for (int start = 0; start + phrase.size() <= words.size(); start++) {
+            if (words.subList(start, start + phrase.size()).equals(phrase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time).getTime() : 0;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -4,7 +4,8 @@ import com.notificationservice.model.dto.EmailNotificationRequest;
 import com.notificationservice.model.dto.QueueNotificationRequest;
 import com.notificationservice.model.dto.RealtimeNotificationRequest;
 import com.notificationservice.model.entity.Notification;
-import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.model.entity.NotificationStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,9 +17,9 @@ import java.time.LocalDateTime;
  * Main Notification Service that coordinates different notification types
  * <p>
  * This service acts as a facade for different notification mechanisms:
- * - Email notifications via EmailService
+ * - Email notifications via EmailDispatchService (asynchronous, status written back)
  * - Real-time notifications via WebSocketService
- * - Queue-based notifications via QueueService
+ * - Queue-based notifications via the transactional outbox (NotificationOutboxService)
  */
 @Service
 public class NotificationService {
@@ -26,7 +27,7 @@ public class NotificationService {
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
 
     @Autowired
-    private EmailService emailService;
+    private EmailDispatchService emailDispatchService;
 
     @Autowired
     private WebSocketService webSocketService;
@@ -35,7 +36,13 @@ public class NotificationService {
     private QueueService queueService;
 
     @Autowired
-    private NotificationRepository notificationRepository;
+    private NotificationAuditWriter auditWriter;
+
+    @Autowired
+    private NotificationRetryService retryService;
+
+    @Autowired
+    private NotificationOutboxService outboxService;
 
     /**
      * Send email notification
@@ -44,16 +51,13 @@ public class NotificationService {
         try {
             logger.info("Processing email notification to: {}", request.getTo());
 
-            // Send email
-            emailService.sendEmail(request);
-
-            // Save notification record
-            saveNotificationRecord("EMAIL", request.getTo(), request.getSubject(), "SENT");
+            // Record as PENDING and hand off to the email senders; the outcome is written back later
+            emailDispatchService.submit(request);
 
-            logger.info("Email notification sent successfully to: {}", request.getTo());
+            logger.info("Email notification queued for: {}", request.getTo());
         } catch (Exception e) {
             logger.error("Failed to send email notification to: {}", request.getTo(), e);
-            saveNotificationRecord("EMAIL", request.getTo(), request.getSubject(), "FAILED");
+            saveFailedRecord(NotificationType.EMAIL, request.getTo(), request.getSubject(), request, e);
             throw new RuntimeException("Failed to send email notification", e);
         }
     }
@@ -69,12 +73,12 @@ public class NotificationService {
             webSocketService.sendNotification(request.getTopic(), request.getMessage());
 
             // Save notification record
-            saveNotificationRecord("WEBSOCKET", request.getTopic(), request.getMessage(), "SENT");
+            saveNotificationRecord(NotificationType.WEBSOCKET, request.getTopic(), request.getMessage(), NotificationStatus.SENT);
 
             logger.info("Real-time notification sent successfully for topic: {}", request.getTopic());
         } catch (Exception e) {
             logger.error("Failed to send real-time notification for topic: {}", request.getTopic(), e);
-            saveNotificationRecord("WEBSOCKET", request.getTopic(), request.getMessage(), "FAILED");
+            saveFailedRecord(NotificationType.WEBSOCKET, request.getTopic(), request.getMessage(), request, e);
             throw new RuntimeException("Failed to send real-time notification", e);
         }
     }
@@ -86,38 +90,52 @@ public class NotificationService {
         try {
             logger.info("Processing queue notification of type: {}", request.getType());
 
-            // Send to queue
-            queueService.sendToQueue(request);
-
-            // Save notification record
-            saveNotificationRecord("QUEUE", request.getRecipient(),
-                    request.getType() + ": " + request.getMessage(), "QUEUED");
+            // Record the notification and its outbox message together; the relay publishes it
+            outboxService.enqueue(request);
 
-            logger.info("Queue notification sent successfully of type: {}", request.getType());
+            logger.info("Queue notification accepted of type: {}", request.getType());
         } catch (Exception e) {
             logger.error("Failed to send queue notification of type: {}", request.getType(), e);
-            saveNotificationRecord("QUEUE", request.getRecipient(),
-                    request.getType() + ": " + request.getMessage(), "FAILED");
+            saveFailedRecord(NotificationType.QUEUE, request.getRecipient(),
+                    request.getType() + ": " + request.getMessage(), request, e);
             throw new RuntimeException("Failed to send queue notification", e);
         }
     }
 
     /**
-     * Save notification record to database
+     * Queue notification record for the batched audit writer
      */
-    private void saveNotificationRecord(String type, String recipient, String content, String status) {
+    private void saveNotificationRecord(NotificationType type, String recipient, String content,
+                                        NotificationStatus status) {
         try {
-            Notification notification = new Notification();
-            notification.setType(type);
-            notification.setRecipient(recipient);
-            notification.setContent(content);
-            notification.setStatus(status);
-            notification.setCreatedAt(LocalDateTime.now());
-
-            notificationRepository.save(notification);
+            auditWriter.enqueue(newRecord(type, recipient, content, status));
         } catch (Exception e) {
             logger.error("Failed to save notification record", e);
             // Don't throw exception here to avoid breaking the main flow
         }
     }
+
+    /**
+     * Queue a FAILED record that keeps the request so the retry worker can re-send it
+     */
+    private void saveFailedRecord(NotificationType type, String recipient, String content, Object request, Exception error) {
+        try {
+            Notification notification = newRecord(type, recipient, content, NotificationStatus.FAILED);
+            retryService.schedule(notification, request, error);
+            auditWriter.enqueue(notification);
+        } catch (Exception e) {
+            logger.error("Failed to save notification record", e);
+            // Don't throw exception here to avoid breaking the main flow
+        }
+    }
+
+    private Notification newRecord(NotificationType type, String recipient, String content, NotificationStatus status) {
+        Notification notification = new Notification();
+        notification.setType(type);
+        notification.setRecipient(recipient);
+        notification.setContent(content);
+        notification.setStatus(status);
+        notification.setCreatedAt(LocalDateTime.now());
+        return notification;
+    }
 }
\ No newline at end of file
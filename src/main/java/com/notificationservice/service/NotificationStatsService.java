@@ -0,0 +1,251 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.repository.NotificationStatsHourlyRepository;
+import com.notificationservice.repository.ShardedNotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live delivery counters and hourly rollups
+ * <p>
+ * Every persisted state change increments a {@link LongAdder} keyed by
+ * hour, type and status name. A periodic flush adds those deltas to
+ * notification_stats_hourly and reloads the all-time baseline from it, so:
+ * - live totals are the rollup baseline plus the unflushed local deltas
+ * - range counts are the rollup rows in range plus the unflushed local deltas
+ * Neither ever scans the notifications table. Ranges are counted in whole
+ * hours; other nodes' deltas become visible after their next flush.
+ */
+@Service
+public class NotificationStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStatsService.class);
+
+    private static final String UPDATE_SQL =
+            "UPDATE notification_stats_hourly SET notification_count = notification_count + ? " +
+                    "WHERE hour_start = ? AND type = ? AND status = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notification_stats_hourly (hour_start, type, status, notification_count) VALUES (?, ?, ?, ?)";
+
+    private static final String BACKFILL_SQL =
+            "SELECT type, status, EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at), " +
+                    "EXTRACT(DAY FROM created_at), EXTRACT(HOUR FROM created_at), COUNT(*) FROM notifications " +
+                    "GROUP BY type, status, EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at), " +
+                    "EXTRACT(DAY FROM created_at), EXTRACT(HOUR FROM created_at)";
+
+    @Autowired
+    private NotificationStatsHourlyRepository statsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired(required = false)
+    private ShardedNotificationRepository shardedRepository;
+
+    /** Unflushed deltas per hour, type and status */
+    private final Map<HourKey, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /** Flushed all-time totals per type and status */
+    private final Map<TypeStatus, Long> baseline = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (statsRepository.count() == 0) {
+            backfill();
+        }
+        reloadBaseline();
+    }
+
+    /**
+     * Count a notification that has been persisted with its current status
+     */
+    public void record(Notification notification) {
+        record(notification.getType(), notification.getStatus(), notification.getCreatedAt(), 1);
+    }
+
+    /**
+     * Move a persisted notification from one status to another
+     */
+    public void transition(Notification notification, NotificationStatus fromStatus) {
+        record(notification.getType(), fromStatus, notification.getCreatedAt(), -1);
+        record(notification.getType(), notification.getStatus(), notification.getCreatedAt(), 1);
+    }
+
+    /**
+     * Live totals as type -> status -> count
+     */
+    public Map<String, Map<String, Long>> totals() {
+        Map<TypeStatus, Long> combined = new HashMap<>(baseline);
+        pending.forEach((key, adder) -> combined.merge(key.typeStatus(), adder.sum(), Long::sum));
+
+        Map<String, Map<String, Long>> result = new TreeMap<>();
+        combined.forEach((key, count) ->
+                result.computeIfAbsent(key.type(), t -> new TreeMap<>()).put(key.status(), count));
+        return result;
+    }
+
+    /**
+     * Live total for a status across all types
+     */
+    public long countByStatus(String status) {
+        long count = 0;
+        for (Map<String, Long> byStatus : totals().values()) {
+            count += byStatus.getOrDefault(status, 0L);
+        }
+        return count;
+    }
+
+    /**
+     * Count a type's notifications created in the hours overlapping [start, end), optionally for one status
+     */
+    public long countByTypeAndRange(String type, String status, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime from = start.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime to = end.truncatedTo(ChronoUnit.HOURS).equals(end) ? end : end.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+
+        long count = statsRepository.sumByTypeAndHourRange(type, status, from, to);
+        for (Map.Entry<HourKey, LongAdder> entry : pending.entrySet()) {
+            HourKey key = entry.getKey();
+            if (key.type().equals(type) && (status == null || key.status().equals(status))
+                    && !key.hour().isBefore(from) && key.hour().isBefore(to)) {
+                count += entry.getValue().sum();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Add local deltas to the hourly rollups and refresh the baseline
+     */
+    @Scheduled(fixedDelayString = "${notification.stats.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        LocalDateTime retireBefore = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+
+        for (Map.Entry<HourKey, LongAdder> entry : pending.entrySet()) {
+            HourKey key = entry.getKey();
+            LongAdder adder = entry.getValue();
+            long delta = adder.sum();
+            if (delta != 0) {
+                try {
+                    upsert(key, delta);
+                    baseline.merge(key.typeStatus(), delta, Long::sum);
+                    adder.add(-delta);
+                } catch (Exception e) {
+                    logger.error("Failed to flush notification stats for {}, will retry", key, e);
+                    continue;
+                }
+            }
+            // Records are stamped when enqueued, so hours this old receive no more increments
+            if (key.hour().isBefore(retireBefore) && adder.sum() == 0) {
+                pending.remove(key, adder);
+            }
+        }
+
+        reloadBaseline();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void record(NotificationType type, NotificationStatus status, LocalDateTime createdAt, long delta) {
+        if (type == null || status == null) {
+            return;
+        }
+        LocalDateTime hour = (createdAt != null ? createdAt : LocalDateTime.now()).truncatedTo(ChronoUnit.HOURS);
+        pending.computeIfAbsent(new HourKey(hour, type.name(), status.name()), k -> new LongAdder()).add(delta);
+    }
+
+    private void upsert(HourKey key, long delta) {
+        Timestamp hour = Timestamp.valueOf(key.hour());
+        int updated = jdbcTemplate.update(UPDATE_SQL, delta, hour, key.type(), key.status());
+        if (updated == 0) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, hour, key.type(), key.status(), delta);
+            } catch (DataIntegrityViolationException e) {
+                // Another node inserted the row first
+                jdbcTemplate.update(UPDATE_SQL, delta, hour, key.type(), key.status());
+            }
+        }
+    }
+
+    private void reloadBaseline() {
+        try {
+            Map<TypeStatus, Long> loaded = new HashMap<>();
+            for (Object[] row : statsRepository.sumByTypeAndStatus()) {
+                loaded.put(new TypeStatus((String) row[0], (String) row[1]), ((Number) row[2]).longValue());
+            }
+            baseline.keySet().retainAll(loaded.keySet());
+            baseline.putAll(loaded);
+        } catch (Exception e) {
+            logger.error("Failed to reload notification stats baseline", e);
+        }
+    }
+
+    /**
+     * One-time rollup of notifications that existed before the stats table, from the primary and every shard
+     */
+    private void backfill() {
+        List<JdbcTemplate> databases = new ArrayList<>();
+        databases.add(jdbcTemplate);
+        if (shardedRepository != null) {
+            databases.addAll(shardedRepository.getJdbcTemplates());
+        }
+        Map<HourKey, Long> counts = new HashMap<>();
+        for (JdbcTemplate database : databases) {
+            database.query(BACKFILL_SQL, rs -> {
+                LocalDateTime hour = LocalDateTime.of(rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getInt(6), 0);
+                counts.merge(new HourKey(hour, NotificationType.fromCode(rs.getInt(1)).name(),
+                        NotificationStatus.fromCode(rs.getInt(2)).name()), rs.getLong(7), Long::sum);
+            });
+        }
+        if (counts.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        counts.forEach((key, count) ->
+                rows.add(new Object[]{Timestamp.valueOf(key.hour()), key.type(), key.status(), count}));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+            logger.info("Backfilled {} hourly notification stats rows", rows.size());
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Notification stats already backfilled by another node");
+        }
+    }
+
+    private record TypeStatus(String type, String status) {
+    }
+
+    private record HourKey(LocalDateTime hour, String type, String status) {
+        TypeStatus typeStatus() {
+            return new TypeStatus(type, status);
+        }
+    }
+}
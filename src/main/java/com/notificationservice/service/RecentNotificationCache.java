@@ -0,0 +1,226 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.dto.NotificationSummary;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.repository.ShardedNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache of each recipient's most recent notifications
+ * <p>
+ * Holds up to {@code notification.recent.per-recipient} summaries, newest
+ * first, for at most {@code notification.recent.max-recipients} recipients,
+ * evicting the least recently read recipient. A recipient is loaded from the
+ * database on its first read; after that every notification written for it
+ * is added and every status change is applied in place, so polling clients
+ * are served from memory. Entries expire after
+ * {@code notification.recent.ttl-ms} to pick up rows written by other nodes.
+ * <p>
+ * Writes that land while a recipient is being loaded mark the load stale,
+ * so a result that may have missed them is not cached.
+ */
+@Service
+public class RecentNotificationCache {
+
+    private static final Comparator<NotificationSummary> NEWEST_FIRST = Comparator
+            .comparing(NotificationSummary::getCreatedAt, Comparator.reverseOrder())
+            .thenComparing(NotificationSummary::getId, Comparator.reverseOrder());
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired(required = false)
+    private ShardedNotificationRepository shardedRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.recent.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.recent.per-recipient:20}")
+    private int perRecipient;
+
+    @Value("${notification.recent.max-recipients:10000}")
+    private int maxRecipients;
+
+    @Value("${notification.recent.ttl-ms:30000}")
+    private long ttlMillis;
+
+    /** Recipient -> recent entries; access-ordered, guarded by this */
+    private Map<String, Entry> entries;
+
+    /** Recipients with a database load in progress -> number of loads; guarded by this */
+    private final Map<String, Integer> loading = new HashMap<>();
+
+    /** Recipients written to during a load; guarded by this */
+    private final Set<String> staleLoads = new HashSet<>();
+
+    private Counter hits;
+
+    private Counter misses;
+
+    @PostConstruct
+    public void init() {
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxRecipients;
+            }
+        };
+        hits = Counter.builder("notification.recent.cache")
+                .tag("result", "hit")
+                .description("Recent-notification lookups")
+                .register(meterRegistry);
+        misses = Counter.builder("notification.recent.cache")
+                .tag("result", "miss")
+                .description("Recent-notification lookups")
+                .register(meterRegistry);
+        Gauge.builder("notification.recent.cache.recipients", this, RecentNotificationCache::size)
+                .description("Recipients held in the recent-notification cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The recipient's newest notifications, newest first
+     */
+    public List<NotificationSummary> recent(String recipient, int limit) {
+        int size = Math.max(1, Math.min(limit, perRecipient));
+        if (!enabled) {
+            return load(recipient, size);
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = entries.get(recipient);
+            if (entry != null && entry.expiresAt > now) {
+                hits.increment();
+                return List.copyOf(entry.items.subList(0, Math.min(size, entry.items.size())));
+            }
+            loading.merge(recipient, 1, Integer::sum);
+        }
+
+        misses.increment();
+        List<NotificationSummary> loaded;
+        try {
+            loaded = load(recipient, perRecipient);
+        } finally {
+            synchronized (this) {
+                if (loading.merge(recipient, -1, Integer::sum) == 0) {
+                    loading.remove(recipient);
+                }
+            }
+        }
+
+        synchronized (this) {
+            if (!loading.containsKey(recipient) && !staleLoads.remove(recipient)) {
+                entries.put(recipient, new Entry(new ArrayList<>(loaded), now + ttlMillis));
+            }
+        }
+        return loaded.subList(0, Math.min(size, loaded.size()));
+    }
+
+    /**
+     * Add a newly written notification to its recipient's entry, if cached
+     */
+    public void record(Notification notification) {
+        if (!enabled || notification.getId() == null) {
+            return;
+        }
+        NotificationSummary summary = summarize(notification);
+        synchronized (this) {
+            markStale(notification.getRecipient());
+            Entry entry = entries.get(notification.getRecipient());
+            if (entry == null) {
+                return;
+            }
+            entry.items.removeIf(item -> summary.getId().equals(item.getId()));
+            int position = 0;
+            while (position < entry.items.size() && NEWEST_FIRST.compare(entry.items.get(position), summary) < 0) {
+                position++;
+            }
+            if (position < perRecipient) {
+                entry.items.add(position, summary);
+            }
+            while (entry.items.size() > perRecipient) {
+                entry.items.remove(entry.items.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * Apply a status change to a cached notification
+     */
+    public void update(Notification notification) {
+        if (!enabled || notification.getId() == null) {
+            return;
+        }
+        NotificationSummary summary = summarize(notification);
+        synchronized (this) {
+            markStale(notification.getRecipient());
+            Entry entry = entries.get(notification.getRecipient());
+            if (entry != null) {
+                entry.items.replaceAll(item -> summary.getId().equals(item.getId()) ? summary : item);
+            }
+        }
+    }
+
+    /**
+     * Drop a recipient's entry
+     */
+    public synchronized void invalidate(String recipient) {
+        markStale(recipient);
+        entries.remove(recipient);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void markStale(String recipient) {
+        if (loading.containsKey(recipient)) {
+            staleLoads.add(recipient);
+        }
+    }
+
+    private List<NotificationSummary> load(String recipient, int size) {
+        if (shardedRepository != null) {
+            return shardedRepository.findRecentSummariesByRecipient(recipient, size);
+        }
+        return notificationRepository.findRecentSummariesByRecipient(recipient, PageRequest.of(0, size));
+    }
+
+    private static NotificationSummary summarize(Notification notification) {
+        return new NotificationSummary(notification.getId(), notification.getType(), notification.getRecipient(),
+                notification.getStatus(), notification.getCreatedAt(), notification.getSentAt());
+    }
+
+    private static final class Entry {
+
+        private final List<NotificationSummary> items;
+
+        private final long expiresAt;
+
+        private Entry(List<NotificationSummary> items, long expiresAt) {
+            this.items = items;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.RefreshToken;
+import com.notificationservice.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Opaque, rotating refresh tokens
+ * <p>
+ * A refresh token is 256 random bits handed to the client once; only its
+ * SHA-256 hash is stored, so exchanging it costs one unique-index lookup and
+ * a hash instead of a BCrypt check. Each exchange consumes the token and
+ * issues its successor. Presenting an already-consumed token means it was
+ * copied, so the whole family is revoked and the user must log in again.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jwt.refresh.expiration:2592000}") // 30 days in seconds
+    private Long refreshExpiration;
+
+    /**
+     * Issue the first refresh token of a new login
+     */
+    public String issue(String username) {
+        return issue(username, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchange a refresh token for its successor
+     *
+     * @return the username and the new refresh token
+     * @throws RuntimeException if the token is unknown, expired, revoked or already used
+     */
+    public Rotation rotate(String rawToken) {
+        Optional<RefreshToken> tokenOpt = refreshTokenRepository.findByTokenHash(hash(rawToken));
+        if (tokenOpt.isEmpty()) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+
+        RefreshToken token = tokenOpt.get();
+        LocalDateTime now = LocalDateTime.now();
+        if (token.getRevoked() || token.getExpiresAt().isBefore(now)) {
+            throw new RuntimeException("Refresh token expired or revoked");
+        }
+
+        // The conditional update makes concurrent exchanges of the same token race safely
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            logger.warn("Refresh token reuse detected for user: {}, revoking family {}",
+                    token.getUsername(), token.getFamilyId());
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            throw new RuntimeException("Refresh token already used");
+        }
+
+        return new Rotation(token.getUsername(), issue(token.getUsername(), token.getFamilyId()));
+    }
+
+    /**
+     * Revoke a refresh token and every token rotated from the same login
+     */
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    /**
+     * Delete refresh tokens past their expiry
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String issue(String username, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(new RefreshToken(hash(rawToken), familyId, username,
+                LocalDateTime.now().plusSeconds(refreshExpiration)));
+        return rawToken;
+    }
+
+    static String hash(String rawToken) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Result of a refresh-token exchange
+     */
+    public record Rotation(String username, String refreshToken) {
+    }
+}
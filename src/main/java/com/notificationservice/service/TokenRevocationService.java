@@ -0,0 +1,180 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.RevokedToken;
+import com.notificationservice.repository.RevokedTokenRepository;
+import com.notificationservice.util.BloomFilter;
+import com.notificationservice.util.JwtTokenCache;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JWT revocation list
+ * <p>
+ * Revocations are persisted in revoked_tokens and mirrored in memory as a
+ * Bloom filter in front of an exact set of token ids, so checking a token
+ * that was never revoked (the common case) is a few bit probes and never
+ * touches the database. Revocations made on other nodes are picked up by a
+ * periodic sync, and entries are purged once the token would have expired.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    /** Overlap for the sync query so rows committed slightly out of order are not missed */
+    private static final long SYNC_OVERLAP_SECONDS = 30;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.revocation.expected-revocations:100000}")
+    private long expectedRevocations;
+
+    @Value("${jwt.revocation.false-positive-probability:0.001}")
+    private double falsePositiveProbability;
+
+    /** Token id -> natural expiry in epoch millis */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+
+    private volatile LocalDateTime lastSync;
+
+    /**
+     * Load unexpired revocations before the application starts serving requests
+     */
+    @PostConstruct
+    public void init() {
+        LocalDateTime now = LocalDateTime.now();
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+            revoked.put(token.getJti(), toEpochMillis(token.getExpiresAt()));
+        }
+        lastSync = now;
+        rebuildFilter();
+
+        Gauge.builder("jwt.revocation.size", revoked, Map::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+        logger.info("Loaded {} token revocations", revoked.size());
+    }
+
+    /**
+     * Revoke a verified token until its natural expiry
+     */
+    public void revoke(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            throw new RuntimeException("Token has no id and cannot be revoked");
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault());
+        if (!revokedTokenRepository.existsById(jti)) {
+            revokedTokenRepository.save(new RevokedToken(jti, claims.getSubject(), expiresAt));
+        }
+        remember(jti, toEpochMillis(expiresAt));
+        logger.info("Revoked token {} for user: {}", jti, claims.getSubject());
+    }
+
+    /**
+     * Revoke a raw token and drop it from the verified-token cache
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     */
+    public void revoke(String token) {
+        revoke(jwtTokenCache.getVerifiedClaims(token));
+        jwtTokenCache.invalidate(token);
+    }
+
+    /**
+     * Check whether a token id has been revoked; answered from memory only
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * Pull revocations recorded by other nodes
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> recent = revokedTokenRepository.findByRevokedAtAfter(lastSync.minusSeconds(SYNC_OVERLAP_SECONDS));
+        for (RevokedToken token : recent) {
+            if (!revoked.containsKey(token.getJti())) {
+                remember(token.getJti(), toEpochMillis(token.getExpiresAt()));
+            }
+        }
+        lastSync = now;
+    }
+
+    /**
+     * Forget revocations of tokens that have expired naturally
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        int purged = before - revoked.size();
+
+        // Bloom filters cannot delete, so rebuild from the remaining ids
+        if (purged > 0) {
+            rebuildFilter();
+        }
+
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0 || deleted > 0) {
+            logger.info("Purged {} expired revocations from memory and {} from the database", purged, deleted);
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private synchronized void remember(String jti, long expiresAt) {
+        revoked.put(jti, expiresAt);
+        filter.put(jti);
+        if (filter.insertions() > filter.expectedInsertions()) {
+            rebuildFilter();
+        }
+    }
+
+    /**
+     * Swap in a filter built from the exact set; synchronized with remember() so no id is lost
+     */
+    private synchronized void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2L), falsePositiveProbability);
+        for (String jti : revoked.keySet()) {
+            rebuilt.put(jti);
+        }
+        filter = rebuilt;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
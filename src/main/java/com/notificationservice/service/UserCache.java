@@ -0,0 +1,138 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.User;
+import com.notificationservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache for user lookups by username
+ * <p>
+ * Backends, selected with {@code user.cache.backend}:
+ * - local: in-process map with TTL and size-based eviction; concurrent misses
+ *   for the same username share a single database query
+ * - hibernate: natural-id lookup through the Hibernate second-level cache
+ *   (see CacheConfig)
+ * - none: always query the repository
+ * <p>
+ * Only found users are cached, so a username registered on another node is
+ * never hidden by a stale negative entry.
+ */
+@Service
+public class UserCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${user.cache.backend:local}")
+    private String backend;
+
+    @Value("${user.cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Value("${user.cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<Optional<User>>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Find a user by username, loading it on a miss
+     */
+    public Optional<User> findByUsername(String username) {
+        switch (backend) {
+            case "hibernate":
+                return entityManager.unwrap(Session.class)
+                        .bySimpleNaturalId(User.class)
+                        .loadOptional(username);
+            case "none":
+                return userRepository.findByUsername(username);
+            default:
+                return findLocal(username);
+        }
+    }
+
+    /**
+     * Drop a user after it has been written
+     */
+    public void invalidate(String username) {
+        generation.incrementAndGet();
+        cache.remove(username);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private Optional<User> findLocal(String username) {
+        long now = System.currentTimeMillis();
+        CachedUser cached = cache.get(username);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                return Optional.of(cached.user);
+            }
+            cache.remove(username, cached);
+        }
+
+        CompletableFuture<Optional<User>> loading = new CompletableFuture<>();
+        CompletableFuture<Optional<User>> existing = inFlight.putIfAbsent(username, loading);
+        if (existing != null) {
+            // Another thread is already querying this username; wait for its result
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            long startGeneration = generation.get();
+            Optional<User> user = userRepository.findByUsername(username);
+            if (user.isPresent() && generation.get() == startGeneration) {
+                if (cache.size() >= maxSize) {
+                    makeRoom(now);
+                }
+                cache.put(username, new CachedUser(user.get(), now + ttlMillis));
+            }
+            loading.complete(user);
+            return user;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(username, loading);
+        }
+    }
+
+    private void makeRoom(long now) {
+        cache.values().removeIf(entry -> entry.expiresAt <= now);
+
+        int toEvict = cache.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> it = cache.keySet().iterator();
+        while (toEvict-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private record CachedUser(User user, long expiresAt) {
+    }
+}
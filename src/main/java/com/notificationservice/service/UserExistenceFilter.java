@@ -0,0 +1,244 @@
+package com.notificationservice.service;
+
+import com.notificationservice.repository.UserRepository;
+import com.notificationservice.util.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Probabilistic existence filter for usernames and emails
+ * <p>
+ * Keeps Bloom filters of all (lower-cased) usernames and emails so that a
+ * definite "absent" answer skips the database. The filters are built from the
+ * users table in keyset-paginated chunks after startup, updated on
+ * registration, and rebuilt in the background when the estimated or observed
+ * false-positive rate drifts above twice the target. Until the first build
+ * completes every lookup falls through to the database.
+ */
+@Service
+public class UserExistenceFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserExistenceFilter.class);
+
+    private static final String CHUNK_SQL =
+            "SELECT id, username, email FROM users WHERE id > ? ORDER BY id LIMIT ?";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.existence-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.existence-filter.false-positive-rate:0.01}")
+    private double targetFalsePositiveRate;
+
+    @Value("${auth.existence-filter.min-capacity:10000}")
+    private long minCapacity;
+
+    @Value("${auth.existence-filter.chunk-size:1000}")
+    private int chunkSize;
+
+    private volatile Filters current;
+
+    private volatile Filters building;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final AtomicLong positiveLookups = new AtomicLong();
+
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    private ExecutorService rebuildExecutor;
+
+    @PostConstruct
+    public void init() {
+        rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-filter-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("auth.existence.filter.fpp", this,
+                        f -> f.current == null ? Double.NaN : f.current.usernames.expectedFalsePositiveProbability())
+                .description("Estimated false-positive probability of the username filter")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuildAsync();
+        }
+    }
+
+    /**
+     * Check whether a username is taken, skipping the database when the filter says it is absent
+     */
+    public boolean usernameExists(String username) {
+        Filters filters = current;
+        if (filters != null && !filters.usernames.mightContain(normalize(username))) {
+            return false;
+        }
+        return verify(filters, userRepository.existsByUsername(username));
+    }
+
+    /**
+     * Check whether an email is registered, skipping the database when the filter says it is absent
+     */
+    public boolean emailExists(String email) {
+        if (email == null) {
+            return false;
+        }
+        Filters filters = current;
+        if (filters != null && !filters.emails.mightContain(normalize(email))) {
+            return false;
+        }
+        return verify(filters, userRepository.existsByEmail(email));
+    }
+
+    /**
+     * Record a newly registered user
+     */
+    public void add(String username, String email) {
+        Filters filters = current;
+        if (filters != null) {
+            filters.add(username, email);
+        }
+        Filters pending = building;
+        if (pending != null) {
+            pending.add(username, email);
+        }
+    }
+
+    /**
+     * Rebuild the filters when their false-positive rate drifts or they exceed capacity
+     */
+    @Scheduled(fixedDelayString = "${auth.existence-filter.check-interval-ms:300000}")
+    public void checkDrift() {
+        Filters filters = current;
+        if (!enabled || filters == null) {
+            return;
+        }
+
+        double limit = targetFalsePositiveRate * 2;
+        long positives = positiveLookups.get();
+        double observed = positives >= 100 ? (double) falsePositives.get() / positives : 0.0;
+        double estimated = Math.max(filters.usernames.expectedFalsePositiveProbability(),
+                filters.emails.expectedFalsePositiveProbability());
+
+        if (estimated > limit || observed > limit
+                || filters.usernames.insertions() > filters.usernames.expectedInsertions()) {
+            logger.info("User existence filter drifted (estimated fpp={}, observed fpp={}), rebuilding",
+                    estimated, observed);
+            rebuildAsync();
+        }
+    }
+
+    /**
+     * Schedule a background rebuild unless one is already running
+     */
+    public void rebuildAsync() {
+        if (rebuilding.compareAndSet(false, true)) {
+            rebuildExecutor.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        try {
+            long userCount = userRepository.count();
+            long capacity = Math.max(minCapacity, userCount * 2);
+            Filters fresh = new Filters(capacity, targetFalsePositiveRate);
+            building = fresh;
+
+            long lastId = 0;
+            long loaded = 0;
+            while (true) {
+                long[] maxId = {lastId};
+                int rows = jdbcTemplate.query(CHUNK_SQL, rs -> {
+                    int count = 0;
+                    while (rs.next()) {
+                        maxId[0] = rs.getLong("id");
+                        fresh.add(rs.getString("username"), rs.getString("email"));
+                        count++;
+                    }
+                    return count;
+                }, lastId, chunkSize);
+                loaded += rows;
+                if (rows < chunkSize) {
+                    break;
+                }
+                lastId = maxId[0];
+            }
+
+            current = fresh;
+            positiveLookups.set(0);
+            falsePositives.set(0);
+            logger.info("User existence filter built from {} users (capacity {})", loaded, capacity);
+        } catch (Exception e) {
+            logger.error("Failed to build user existence filter", e);
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    private boolean verify(Filters filters, boolean exists) {
+        if (filters != null) {
+            positiveLookups.incrementAndGet();
+            if (!exists) {
+                falsePositives.incrementAndGet();
+            }
+        }
+        return exists;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Filters {
+        private final BloomFilter usernames;
+        private final BloomFilter emails;
+
+        private Filters(long capacity, double falsePositiveRate) {
+            this.usernames = new BloomFilter(capacity, falsePositiveRate);
+            this.emails = new BloomFilter(capacity, falsePositiveRate);
+        }
+
+        private void add(String username, String email) {
+            if (username != null) {
+                usernames.put(normalize(username));
+            }
+            if (email != null) {
+                emails.put(normalize(email));
+            }
+        }
+    }
+}
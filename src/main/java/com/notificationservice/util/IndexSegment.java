@@ -0,0 +1,365 @@
+package com.notificationservice.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, memory-mapped segment of an inverted index over short documents
+ * <p>
+ * A segment file holds a header (magic, version, the generations it was
+ * merged from), a doc table (id, created-at millis, recipient and type per
+ * doc), a sorted term dictionary (term, first posting, posting count) and
+ * the postings themselves as ascending int doc ordinals. The doc table and
+ * term dictionary are read into arrays on open; postings are read straight
+ * from the mapped file.
+ * <p>
+ * Segments are built with a {@link Builder}, which is also searchable while
+ * it fills up, and written once; merging several segments writes a new one.
+ */
+public final class IndexSegment implements IndexSegmentReader {
+
+    private static final int MAGIC = 0x4E534958; // "NSIX"
+    private static final int VERSION = 1;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private final Path file;
+    private final long generation;
+    private final long[] mergedFrom;
+    private final long[] ids;
+    private final long[] createdAt;
+    private final String[] recipients;
+    private final String[] types;
+    private final String[] terms;
+    private final int[] postingStarts;
+    private final int[] postingCounts;
+    private final MappedByteBuffer buffer;
+    private final int postingsBase;
+    private final long maxId;
+    private final long maxCreatedAt;
+
+    private IndexSegment(Path file, long generation) throws IOException {
+        this.file = file;
+        this.generation = generation;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not an index segment: " + file);
+        }
+
+        mergedFrom = new long[buffer.getInt()];
+        for (int i = 0; i < mergedFrom.length; i++) {
+            mergedFrom[i] = buffer.getLong();
+        }
+
+        int docs = buffer.getInt();
+        ids = new long[docs];
+        createdAt = new long[docs];
+        recipients = new String[docs];
+        types = new String[docs];
+        long highestId = 0;
+        long latest = 0;
+        for (int doc = 0; doc < docs; doc++) {
+            ids[doc] = buffer.getLong();
+            createdAt[doc] = buffer.getLong();
+            recipients[doc] = readString(buffer);
+            types[doc] = readString(buffer);
+            highestId = Math.max(highestId, ids[doc]);
+            latest = Math.max(latest, createdAt[doc]);
+        }
+        maxId = highestId;
+        maxCreatedAt = latest;
+
+        int termCount = buffer.getInt();
+        terms = new String[termCount];
+        postingStarts = new int[termCount];
+        postingCounts = new int[termCount];
+        for (int i = 0; i < termCount; i++) {
+            terms[i] = readString(buffer);
+            postingStarts[i] = buffer.getInt();
+            postingCounts[i] = buffer.getInt();
+        }
+        postingsBase = buffer.position();
+    }
+
+    /**
+     * Open a segment file written by {@link Builder#write}
+     */
+    public static IndexSegment open(Path file, long generation) throws IOException {
+        return new IndexSegment(file, generation);
+    }
+
+    /**
+     * Combine segments into a new one; doc ordinals are renumbered in the order given
+     */
+    public static IndexSegment merge(List<IndexSegment> segments, Path file, long generation,
+                                     long[] mergedFrom) throws IOException {
+        Builder builder = new Builder();
+        for (IndexSegment segment : segments) {
+            int base = builder.docCount();
+            for (int doc = 0; doc < segment.docCount(); doc++) {
+                builder.addDoc(segment.ids[doc], segment.createdAt[doc], segment.recipients[doc], segment.types[doc]);
+            }
+            for (int i = 0; i < segment.terms.length; i++) {
+                for (int doc : segment.postings(i)) {
+                    builder.addPosting(segment.terms[i], base + doc);
+                }
+            }
+        }
+        return builder.write(file, generation, mergedFrom);
+    }
+
+    /**
+     * Lower-cased letter/digit runs of {@code text}, in order, each cut to 64 characters
+     */
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = text.substring(start, Math.min(i, start + MAX_TERM_LENGTH)).toLowerCase(Locale.ROOT);
+                tokens.add(token);
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    @Override
+    public int docCount() {
+        return ids.length;
+    }
+
+    @Override
+    public long id(int doc) {
+        return ids[doc];
+    }
+
+    @Override
+    public long createdAt(int doc) {
+        return createdAt[doc];
+    }
+
+    @Override
+    public String recipient(int doc) {
+        return recipients[doc];
+    }
+
+    @Override
+    public String type(int doc) {
+        return types[doc];
+    }
+
+    @Override
+    public int[] postings(String term) {
+        int index = Arrays.binarySearch(terms, term);
+        return index < 0 ? NO_POSTINGS : postings(index);
+    }
+
+    private int[] postings(int termIndex) {
+        int[] docs = new int[postingCounts[termIndex]];
+        int offset = postingsBase + postingStarts[termIndex] * Integer.BYTES;
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = buffer.getInt(offset + i * Integer.BYTES);
+        }
+        return docs;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public long[] getMergedFrom() {
+        return mergedFrom.clone();
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public long getMaxCreatedAt() {
+        return maxCreatedAt;
+    }
+
+    public long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            bytes = Arrays.copyOf(bytes, 0xFFFF);
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Mutable, in-memory segment; not thread-safe
+     */
+    public static final class Builder implements IndexSegmentReader {
+
+        private long[] ids = new long[64];
+        private long[] createdAt = new long[64];
+        private String[] recipients = new String[64];
+        private String[] types = new String[64];
+        private int size;
+        private final Map<String, IntList> postings = new HashMap<>();
+
+        /**
+         * Add a document and index the distinct tokens of its text
+         *
+         * @return the new doc's ordinal
+         */
+        public int add(long id, long createdAtMillis, String recipient, String type, String text) {
+            int doc = addDoc(id, createdAtMillis, recipient, type);
+            Set<String> distinct = new LinkedHashSet<>(tokens(text));
+            for (String term : distinct) {
+                addPosting(term, doc);
+            }
+            return doc;
+        }
+
+        private int addDoc(long id, long createdAtMillis, String recipient, String type) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                createdAt = Arrays.copyOf(createdAt, capacity);
+                recipients = Arrays.copyOf(recipients, capacity);
+                types = Arrays.copyOf(types, capacity);
+            }
+            ids[size] = id;
+            createdAt[size] = createdAtMillis;
+            recipients[size] = recipient;
+            types[size] = type;
+            return size++;
+        }
+
+        private void addPosting(String term, int doc) {
+            postings.computeIfAbsent(term, t -> new IntList()).add(doc);
+        }
+
+        @Override
+        public int docCount() {
+            return size;
+        }
+
+        @Override
+        public long id(int doc) {
+            return ids[doc];
+        }
+
+        @Override
+        public long createdAt(int doc) {
+            return createdAt[doc];
+        }
+
+        @Override
+        public String recipient(int doc) {
+            return recipients[doc];
+        }
+
+        @Override
+        public String type(int doc) {
+            return types[doc];
+        }
+
+        @Override
+        public int[] postings(String term) {
+            IntList list = postings.get(term);
+            return list == null ? NO_POSTINGS : Arrays.copyOf(list.values, list.size);
+        }
+
+        /**
+         * Write the segment to a temporary file, move it into place and open it
+         */
+        public IndexSegment write(Path file, long generation, long[] mergedFrom) throws IOException {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            String[] sortedTerms = postings.keySet().toArray(new String[0]);
+            Arrays.sort(sortedTerms);
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(mergedFrom.length);
+                for (long merged : mergedFrom) {
+                    out.writeLong(merged);
+                }
+
+                out.writeInt(size);
+                for (int doc = 0; doc < size; doc++) {
+                    out.writeLong(ids[doc]);
+                    out.writeLong(createdAt[doc]);
+                    writeString(out, recipients[doc]);
+                    writeString(out, types[doc]);
+                }
+
+                out.writeInt(sortedTerms.length);
+                int start = 0;
+                for (String term : sortedTerms) {
+                    int count = postings.get(term).size;
+                    writeString(out, term);
+                    out.writeInt(start);
+                    out.writeInt(count);
+                    start += count;
+                }
+
+                for (String term : sortedTerms) {
+                    IntList list = postings.get(term);
+                    for (int i = 0; i < list.size; i++) {
+                        out.writeInt(list.values[i]);
+                    }
+                }
+            }
+
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return open(file, generation);
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.notificationservice.util;
+
+/**
+ * Read access shared by on-disk index segments and segments still being built
+ */
+public interface IndexSegmentReader {
+
+    int docCount();
+
+    long id(int doc);
+
+    long createdAt(int doc);
+
+    String recipient(int doc);
+
+    String type(int doc);
+
+    /**
+     * Ascending doc ordinals containing the term
+     */
+    int[] postings(String term);
+}
@@ -0,0 +1,152 @@
+package com.notificationservice.util;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of verified JWT claims keyed by token digest
+ * <p>
+ * A token's signature is checked once per node; subsequent requests carrying
+ * the same token are served from memory until the token expires. Only tokens
+ * that passed verification are ever cached.
+ */
+@Component
+public class JwtTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenCache.class);
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, CachedClaims> cache = new ConcurrentHashMap<>();
+
+    private Counter hits;
+
+    private Counter misses;
+
+    @PostConstruct
+    public void init() {
+        hits = Counter.builder("jwt.token.cache")
+                .tag("result", "hit")
+                .description("Verified-token cache lookups")
+                .register(meterRegistry);
+        misses = Counter.builder("jwt.token.cache")
+                .tag("result", "miss")
+                .description("Verified-token cache lookups")
+                .register(meterRegistry);
+        Gauge.builder("jwt.token.cache.size", cache, Map::size)
+                .description("Verified tokens currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Return the verified claims of a token, parsing it only on a cache miss
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     */
+    public Claims getVerifiedClaims(String token) {
+        String key = digest(token);
+        long now = System.currentTimeMillis();
+
+        CachedClaims cached = cache.get(key);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                hits.increment();
+                return cached.claims;
+            }
+            cache.remove(key, cached);
+        }
+
+        misses.increment();
+        Claims claims = jwtUtil.extractAllClaims(token);
+        if (claims.getExpiration() == null) {
+            // Never cache tokens without an expiry; they would pin memory forever
+            return claims;
+        }
+
+        if (cache.size() >= maxSize) {
+            makeRoom(now);
+        }
+        cache.put(key, new CachedClaims(claims, claims.getExpiration().getTime()));
+        return claims;
+    }
+
+    /**
+     * Drop a token from the cache, e.g. after it has been revoked
+     */
+    public void invalidate(String token) {
+        cache.remove(digest(token));
+    }
+
+    /**
+     * Periodically remove expired tokens
+     */
+    @Scheduled(fixedDelayString = "${jwt.cache.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        int before = cache.size();
+        cache.values().removeIf(entry -> entry.expiresAt <= now);
+        int removed = before - cache.size();
+        if (removed > 0) {
+            logger.debug("Evicted {} expired tokens from verified-token cache", removed);
+        }
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Evict expired entries and, if the cache is still full, an arbitrary tenth of it
+     */
+    private void makeRoom(long now) {
+        cache.values().removeIf(entry -> entry.expiresAt <= now);
+
+        int toEvict = cache.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> it = cache.keySet().iterator();
+        while (toEvict-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static String digest(String token) {
+        MessageDigest md = SHA_256.get();
+        md.reset();
+        return Base64.getEncoder().encodeToString(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private record CachedClaims(Claims claims, long expiresAt) {
+    }
+}
@@ -0,0 +1,84 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.util.Map;
+
+/**
+ * Tenth migration: Move the wide notification columns into their own table
+ * <p>
+ * notifications keeps only the narrow columns scanned by status and listing
+ * queries; content, content hash and error message are read by id on demand.
+ * <p>
+ * Runs outside a transaction so rows are copied into notification_details in
+ * id-ranged chunks that each commit on their own; a run that stops while
+ * copying can be restarted and skips rows already copied. The three columns
+ * are then dropped in a single ALTER, so MySQL rebuilds notifications once.
+ */
+public class V10__Split_notification_details extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V10__Split_notification_details.class);
+
+    private static final int CHUNK_SIZE = 10000;
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+
+        if (!MigrationSupport.tableExists(connection, "notification_details")) {
+            jdbc.execute("CREATE TABLE notification_details (" +
+                    "notification_id BIGINT NOT NULL PRIMARY KEY, " +
+                    "content TEXT NULL, " +
+                    "content_hash VARCHAR(64) NULL, " +
+                    "error_message VARCHAR(500) NULL)");
+            jdbc.execute("CREATE INDEX idx_notification_details_content_hash ON notification_details (content_hash)");
+        }
+
+        if (MigrationSupport.columnExists(connection, "notifications", "content")) {
+            copyDetails(jdbc);
+        }
+
+        if (MigrationSupport.indexExists(connection, "notifications", "idx_notifications_content_hash")) {
+            jdbc.execute(MigrationSupport.isMySql(connection)
+                    ? "DROP INDEX idx_notifications_content_hash ON notifications"
+                    : "DROP INDEX idx_notifications_content_hash");
+        }
+        if (MigrationSupport.isMySql(connection)) {
+            jdbc.execute("ALTER TABLE notifications DROP COLUMN content_hash, DROP COLUMN content, DROP COLUMN error_message");
+        } else {
+            jdbc.execute("ALTER TABLE notifications DROP COLUMN content_hash, content, error_message");
+        }
+    }
+
+    private void copyDetails(JdbcTemplate jdbc) {
+        Map<String, Object> range = jdbc.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM notifications");
+        if (range.get("min_id") == null) {
+            return;
+        }
+        long minId = ((Number) range.get("min_id")).longValue();
+        long maxId = ((Number) range.get("max_id")).longValue();
+
+        String sql = "INSERT INTO notification_details (notification_id, content, content_hash, error_message) " +
+                "SELECT n.id, n.content, n.content_hash, n.error_message FROM notifications n " +
+                "WHERE n.id >= ? AND n.id < ? " +
+                "AND (n.content IS NOT NULL OR n.content_hash IS NOT NULL OR n.error_message IS NOT NULL) " +
+                "AND NOT EXISTS (SELECT 1 FROM notification_details d WHERE d.notification_id = n.id)";
+        long copied = 0;
+        for (long from = minId; from <= maxId; from += CHUNK_SIZE) {
+            copied += jdbc.update(sql, from, from + CHUNK_SIZE);
+        }
+        logger.info("Copied details of {} notifications", copied);
+    }
+}
@@ -0,0 +1,133 @@
+package db.migration;
+
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fifteenth migration: Store notifications.type and notifications.status as TINYINT codes
+ * <p>
+ * The codes match NotificationType and NotificationStatus; they are copied
+ * here so this migration keeps meaning the same thing when the enums grow.
+ * <p>
+ * Runs outside a transaction so existing rows are converted in id-ranged
+ * chunks that each commit on their own: new code columns are added, filled
+ * chunk by chunk, then swapped in for the VARCHAR columns and the type and
+ * status indexes are rebuilt on them. A run that stops while filling can be
+ * restarted; it only converts rows that have no code yet. Any value without
+ * a code fails the migration before the old columns are dropped.
+ */
+public class V15__Encode_notification_type_and_status extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V15__Encode_notification_type_and_status.class);
+
+    private static final int CHUNK_SIZE = 10000;
+
+    private static final Map<String, Integer> TYPE_CODES = Map.of(
+            "EMAIL", 1,
+            "WEBSOCKET", 2,
+            "QUEUE", 3);
+
+    private static final Map<String, Integer> STATUS_CODES = Map.of(
+            "SENT", 1,
+            "FAILED", 2,
+            "PENDING", 3,
+            "QUEUED", 4);
+
+    /** Indexes on the VARCHAR columns, dropped before the columns are */
+    private static final List<String> OLD_INDEXES = List.of(
+            "idx_notifications_type",
+            "idx_notifications_status",
+            "idx_notifications_status_created_id",
+            "idx_notifications_retry");
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean mysql = MigrationSupport.isMySql(connection);
+        JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+
+        if (!MigrationSupport.columnExists(connection, "notifications", "type_code")) {
+            jdbc.execute("ALTER TABLE notifications ADD COLUMN type_code TINYINT NULL");
+        }
+        if (!MigrationSupport.columnExists(connection, "notifications", "status_code")) {
+            jdbc.execute("ALTER TABLE notifications ADD COLUMN status_code TINYINT NULL");
+        }
+
+        fillCodes(jdbc);
+        checkAllCoded(jdbc);
+
+        for (String index : OLD_INDEXES) {
+            if (MigrationSupport.indexExists(connection, "notifications", index)) {
+                jdbc.execute(mysql ? "DROP INDEX " + index + " ON notifications" : "DROP INDEX " + index);
+            }
+        }
+
+        if (mysql) {
+            // One table rebuild for the whole swap
+            jdbc.execute("ALTER TABLE notifications DROP COLUMN type, DROP COLUMN status, " +
+                    "CHANGE COLUMN type_code type TINYINT NOT NULL, CHANGE COLUMN status_code status TINYINT NOT NULL");
+        } else {
+            jdbc.execute("ALTER TABLE notifications DROP COLUMN type");
+            jdbc.execute("ALTER TABLE notifications DROP COLUMN status");
+            jdbc.execute("ALTER TABLE notifications ALTER COLUMN type_code RENAME TO type");
+            jdbc.execute("ALTER TABLE notifications ALTER COLUMN status_code RENAME TO status");
+            jdbc.execute("ALTER TABLE notifications ALTER COLUMN type SET NOT NULL");
+            jdbc.execute("ALTER TABLE notifications ALTER COLUMN status SET NOT NULL");
+        }
+
+        // idx_notifications_status is not recreated: status lookups use the (status, created_at, id) prefix
+        jdbc.execute("CREATE INDEX idx_notifications_type ON notifications (type)");
+        jdbc.execute("CREATE INDEX idx_notifications_status_created_id ON notifications (status, created_at, id)");
+        jdbc.execute("CREATE INDEX idx_notifications_retry ON notifications (status, next_attempt_at)");
+    }
+
+    private void fillCodes(JdbcTemplate jdbc) {
+        Map<String, Object> range = jdbc.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM notifications " +
+                "WHERE type_code IS NULL OR status_code IS NULL");
+        if (range.get("min_id") == null) {
+            return;
+        }
+        long minId = ((Number) range.get("min_id")).longValue();
+        long maxId = ((Number) range.get("max_id")).longValue();
+
+        String sql = "UPDATE notifications SET type_code = " + caseOf("type", TYPE_CODES) +
+                ", status_code = " + caseOf("status", STATUS_CODES) +
+                " WHERE id >= ? AND id < ? AND (type_code IS NULL OR status_code IS NULL)";
+        long converted = 0;
+        for (long from = minId; from <= maxId; from += CHUNK_SIZE) {
+            converted += jdbc.update(sql, from, from + CHUNK_SIZE);
+        }
+        logger.info("Encoded type and status of {} notifications", converted);
+    }
+
+    private void checkAllCoded(JdbcTemplate jdbc) {
+        List<String> unknownTypes = jdbc.queryForList(
+                "SELECT DISTINCT type FROM notifications WHERE type_code IS NULL", String.class);
+        List<String> unknownStatuses = jdbc.queryForList(
+                "SELECT DISTINCT status FROM notifications WHERE status_code IS NULL", String.class);
+        if (!unknownTypes.isEmpty() || !unknownStatuses.isEmpty()) {
+            throw new FlywayException("Notifications with types " + unknownTypes + " or statuses " + unknownStatuses +
+                    " have no code; map or remove them and run the migration again");
+        }
+    }
+
+    private static String caseOf(String column, Map<String, Integer> codes) {
+        StringBuilder sql = new StringBuilder("CASE UPPER(").append(column).append(")");
+        codes.forEach((name, code) -> sql.append(" WHEN '").append(name).append("' THEN ").append(code));
+        return sql.append(" END").toString();
+    }
+}
@@ -0,0 +1,9 @@
+package db.shard;
+
+import db.migration.V15__Encode_notification_type_and_status;
+
+/**
+ * Shard schema version 2: the same type and status encoding as the primary's V15
+ */
+public class V2__Encode_notification_type_and_status extends V15__Encode_notification_type_and_status {
+}
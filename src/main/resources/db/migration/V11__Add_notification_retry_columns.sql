@@ -0,0 +1,11 @@
+-- V11__Add_notification_retry_columns.sql
+-- Eleventh migration: Retry scheduling for failed deliveries.
+-- The retry worker claims FAILED rows whose next_attempt_at is due; the
+-- original request is kept in notification_details.payload for re-dispatch.
+
+ALTER TABLE notifications ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE notifications ADD COLUMN next_attempt_at TIMESTAMP NULL;
+
+CREATE INDEX idx_notifications_retry ON notifications (status, next_attempt_at);
+
+ALTER TABLE notification_details ADD COLUMN payload TEXT NULL;
@@ -0,0 +1,12 @@
+-- V12__Create_notification_outbox_table.sql
+-- Twelfth migration: Transactional outbox for queue notifications.
+-- Rows are inserted in the same transaction as the notification and
+-- deleted by the relay once RabbitMQ has confirmed them.
+
+CREATE TABLE notification_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    notification_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
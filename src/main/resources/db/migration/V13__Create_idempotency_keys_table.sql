@@ -0,0 +1,19 @@
+-- V13__Create_idempotency_keys_table.sql
+-- Thirteenth migration: Idempotency keys for the /api/notify endpoints.
+-- A row is claimed (response_status NULL) before a request is processed and
+-- completed with the response, so a retried request with the same key is
+-- answered from here on any node. Rows are purged after expires_at.
+
+CREATE TABLE idempotency_keys (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    scope VARCHAR(20) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    response_status INT,
+    response_body TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_idempotency_keys_scope_key UNIQUE (scope, idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
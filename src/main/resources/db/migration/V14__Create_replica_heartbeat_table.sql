@@ -0,0 +1,11 @@
+-- V14__Create_replica_heartbeat_table.sql
+-- Fourteenth migration: Heartbeat row used to measure read replica lag.
+-- The primary stamps beat_at every few seconds; comparing it with the value
+-- the replica has replicated tells how far behind the replica is.
+
+CREATE TABLE replica_heartbeat (
+    id INT PRIMARY KEY,
+    beat_at TIMESTAMP(3) NOT NULL
+);
+
+INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, CURRENT_TIMESTAMP);
@@ -0,0 +1,12 @@
+-- V16__Add_outbox_lease_and_parking.sql
+-- Sixteenth migration: Lease-based outbox claims and a parking state.
+-- The relay commits its claim by pushing next_attempt_at out by a lease and
+-- publishes outside the transaction. Rows that keep failing, or whose payload
+-- cannot be published at all, are parked (parked_at set) with their last
+-- error and are no longer claimed.
+
+ALTER TABLE notification_outbox ADD COLUMN next_attempt_at TIMESTAMP NULL;
+ALTER TABLE notification_outbox ADD COLUMN parked_at TIMESTAMP NULL;
+ALTER TABLE notification_outbox ADD COLUMN last_error VARCHAR(500) NULL;
+
+CREATE INDEX idx_notification_outbox_claim ON notification_outbox (parked_at, next_attempt_at);
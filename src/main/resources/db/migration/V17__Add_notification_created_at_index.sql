@@ -0,0 +1,6 @@
+-- V17__Add_notification_created_at_index.sql
+-- Seventeenth migration: Index for time-window scans over all recipients.
+-- The search index reconcile pass reads the rows created in its window
+-- every few minutes; without this it would scan the whole table.
+
+CREATE INDEX idx_notifications_created_id ON notifications (created_at, id);
@@ -0,0 +1,12 @@
+-- V5__Create_id_generators_table.sql
+-- Fifth migration: Table-backed pooled id generator for notifications
+-- (IDENTITY ids prevent Hibernate from batching inserts)
+
+CREATE TABLE id_generators (
+    gen_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    gen_value BIGINT
+);
+
+-- Start above existing ids, leaving room for the first pooled block of 100
+INSERT INTO id_generators (gen_name, gen_value)
+SELECT 'notifications', COALESCE(MAX(id), 0) + 100 FROM notifications;
@@ -0,0 +1,6 @@
+-- V6__Add_notification_history_indexes.sql
+-- Sixth migration: Composite indexes for keyset-paginated notification history
+-- (newest first on created_at, id within a recipient or a status)
+
+CREATE INDEX idx_notifications_recipient_created_id ON notifications (recipient, created_at, id);
+CREATE INDEX idx_notifications_status_created_id ON notifications (status, created_at, id);
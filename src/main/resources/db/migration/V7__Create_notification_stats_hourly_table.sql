@@ -0,0 +1,14 @@
+-- V7__Create_notification_stats_hourly_table.sql
+-- Seventh migration: Hourly delivery-count rollups per type and status
+-- (existing notifications are backfilled by NotificationStatsService on first start)
+
+CREATE TABLE notification_stats_hourly (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    hour_start TIMESTAMP NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    notification_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_notification_stats_hourly UNIQUE (hour_start, type, status)
+);
+
+CREATE INDEX idx_notification_stats_hourly_type_hour ON notification_stats_hourly (type, hour_start);
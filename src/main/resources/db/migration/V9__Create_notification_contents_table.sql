@@ -0,0 +1,18 @@
+-- V9__Create_notification_contents_table.sql
+-- Ninth migration: Deduplicated, optionally compressed notification content.
+-- New notifications reference their content by hash; content stays in
+-- notifications.content only for rows written before this migration.
+
+CREATE TABLE notification_contents (
+    content_hash VARCHAR(64) NOT NULL PRIMARY KEY,
+    compressed BOOLEAN NOT NULL DEFAULT FALSE,
+    original_size INT NOT NULL,
+    data LONGBLOB NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_notification_contents_created_at ON notification_contents (created_at);
+
+ALTER TABLE notifications ADD COLUMN content_hash VARCHAR(64) NULL;
+
+CREATE INDEX idx_notifications_content_hash ON notifications (content_hash);
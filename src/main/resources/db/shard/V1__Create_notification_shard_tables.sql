@@ -0,0 +1,32 @@
+-- V1__Create_notification_shard_tables.sql
+-- Shard schema, applied to every datasource under notification.sharding.
+-- Each shard holds the notifications (and their details) of the recipients
+-- that hash to it; ids are allocated on the primary database so they stay
+-- unique across shards.
+
+CREATE TABLE notifications (
+    id BIGINT NOT NULL PRIMARY KEY,
+    type VARCHAR(50) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    sent_at TIMESTAMP NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NULL
+);
+
+CREATE INDEX idx_notifications_type ON notifications (type);
+CREATE INDEX idx_notifications_created_at ON notifications (created_at);
+CREATE INDEX idx_notifications_recipient_created_id ON notifications (recipient, created_at, id);
+CREATE INDEX idx_notifications_status_created_id ON notifications (status, created_at, id);
+CREATE INDEX idx_notifications_retry ON notifications (status, next_attempt_at);
+
+CREATE TABLE notification_details (
+    notification_id BIGINT NOT NULL PRIMARY KEY,
+    content TEXT NULL,
+    content_hash VARCHAR(64) NULL,
+    error_message VARCHAR(500) NULL,
+    payload TEXT NULL
+);
+
+CREATE INDEX idx_notification_details_content_hash ON notification_details (content_hash);
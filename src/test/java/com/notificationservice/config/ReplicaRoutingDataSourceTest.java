@@ -0,0 +1,131 @@
+package com.notificationservice.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for ReplicaRoutingDataSource with two H2 databases as primary and replica
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate primaryJdbc;
+
+    private JdbcTemplate replicaJdbc;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnly;
+
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+        for (JdbcTemplate jdbc : new JdbcTemplate[]{primaryJdbc, replicaJdbc}) {
+            jdbc.execute("CREATE TABLE replica_heartbeat (id INT PRIMARY KEY, beat_at TIMESTAMP(3) NOT NULL)");
+            jdbc.execute("CREATE TABLE marker (name VARCHAR(20))");
+        }
+        primaryJdbc.update("INSERT INTO marker VALUES ('primary')");
+        replicaJdbc.update("INSERT INTO marker VALUES ('replica')");
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, replica, 5000);
+        routingDataSource.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primaryJdbc.execute("DROP ALL OBJECTS");
+        replicaJdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void readOnlyTransaction_WhenReplicaCurrent_ReadsReplica() {
+        // Given
+        replicate();
+        routingDataSource.checkLag();
+
+        // When
+        String readOnlySource = readOnly.execute(status -> marker());
+        String readWriteSource = readWrite.execute(status -> marker());
+
+        // Then
+        assertTrue(routingDataSource.isReplicaAvailable());
+        assertEquals("replica", readOnlySource);
+        assertEquals("primary", readWriteSource);
+        assertEquals("primary", marker());
+    }
+
+    @Test
+    void readOnlyTransaction_WhenReplicaLagging_ReadsPrimary() {
+        // Given
+        replicaJdbc.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, DATEADD('MINUTE', -1, CURRENT_TIMESTAMP(3)))");
+        routingDataSource.checkLag();
+
+        // When
+        String source = readOnly.execute(status -> marker());
+
+        // Then
+        assertFalse(routingDataSource.isReplicaAvailable());
+        assertTrue(routingDataSource.getLagMillis() >= 55000);
+        assertEquals("primary", source);
+    }
+
+    @Test
+    void readOnlyTransaction_WhenReplicaUnreachable_ReadsPrimaryUntilItRecovers() {
+        // Given - no heartbeat row on the replica yet
+        routingDataSource.checkLag();
+
+        // When
+        long lagBeforeRecovery = routingDataSource.getLagMillis();
+        String beforeRecovery = readOnly.execute(status -> marker());
+        replicate();
+        routingDataSource.checkLag();
+        String afterRecovery = readOnly.execute(status -> marker());
+
+        // Then
+        assertEquals(-1, lagBeforeRecovery);
+        assertEquals("primary", beforeRecovery);
+        assertEquals("replica", afterRecovery);
+    }
+
+    private String marker() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    /** Copy the primary's heartbeat to the replica, as replication would */
+    private void replicate() {
+        primaryJdbc.update("MERGE INTO replica_heartbeat (id, beat_at) KEY (id) VALUES (1, CURRENT_TIMESTAMP(3))");
+        Object beat = primaryJdbc.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Object.class);
+        replicaJdbc.update("MERGE INTO replica_heartbeat (id, beat_at) KEY (id) VALUES (1, ?)", beat);
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-routing;DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+}
@@ -4,7 +4,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.notificationservice.model.dto.EmailNotificationRequest;
 import com.notificationservice.model.dto.QueueNotificationRequest;
 import com.notificationservice.model.dto.RealtimeNotificationRequest;
+import com.notificationservice.service.IdempotencyService;
 import com.notificationservice.service.NotificationService;
+import com.notificationservice.service.TokenRevocationService;
+import com.notificationservice.util.JwtTokenCache;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -13,9 +17,14 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.function.Supplier;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -34,9 +43,26 @@ class NotificationControllerTest {
     @MockBean
     private NotificationService notificationService;
 
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    // Needed by JwtRequestFilter, which @WebMvcTest picks up as a servlet filter
+    @MockBean
+    private JwtTokenCache jwtTokenCache;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @BeforeEach
+    void setUp() {
+        // No Idempotency-Key in these requests: run the handler as is
+        when(idempotencyService.execute(anyString(), isNull(), any(), any()))
+                .thenAnswer(inv -> inv.<Supplier<?>>getArgument(3).get());
+    }
+
     @Test
     @WithMockUser
     void testSendEmailNotification_Success() throws Exception {
@@ -0,0 +1,232 @@
+package com.notificationservice.repository;
+
+import com.notificationservice.model.dto.NotificationSummary;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for ShardedNotificationRepository with three H2 databases as shards
+ */
+class ShardedNotificationRepositoryTest {
+
+    private static final int SHARDS = 3;
+
+    private final List<JdbcTemplate> shardJdbc = new ArrayList<>();
+
+    private JdbcTemplate primaryJdbc;
+
+    private ShardedNotificationRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        primaryJdbc = new JdbcTemplate(primary);
+        primaryJdbc.execute("CREATE TABLE id_generators (gen_name VARCHAR(255) PRIMARY KEY, gen_value BIGINT)");
+        primaryJdbc.update("INSERT INTO id_generators VALUES ('notifications', 1000)");
+
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            DataSource shard = h2("shard" + i);
+            Flyway.configure().dataSource(shard).locations("classpath:db/shard").load().migrate();
+            shards.add(shard);
+            shardJdbc.add(new JdbcTemplate(shard));
+        }
+
+        repository = new ShardedNotificationRepository(shards, primaryJdbc,
+                new TransactionTemplate(new DataSourceTransactionManager(primary)), 10, SHARDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.shutdown();
+        primaryJdbc.execute("DROP ALL OBJECTS");
+        shardJdbc.forEach(jdbc -> jdbc.execute("DROP ALL OBJECTS"));
+    }
+
+    @Test
+    void testRecipientRowsLiveOnOneShard() {
+        // Given
+        String recipient = "a@example.com";
+        int shard = repository.shardFor(recipient);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        repository.saveAll(List.of(
+                notification(recipient, NotificationStatus.SENT, base),
+                notification(recipient, NotificationStatus.FAILED, base.plusMinutes(1))));
+
+        // When
+        List<NotificationSummary> recent = repository.findRecentSummariesByRecipient(recipient, 10);
+
+        // Then
+        assertEquals(2, recent.size());
+        assertEquals(NotificationStatus.FAILED, recent.get(0).getStatus());
+        for (int i = 0; i < SHARDS; i++) {
+            long rows = shardJdbc.get(i).queryForObject(
+                    "SELECT COUNT(*) FROM notifications WHERE recipient = ?", Long.class, recipient);
+            assertEquals(i == shard ? 2 : 0, rows);
+        }
+        assertTrue(recent.get(0).getId() > 1000, "ids start above the unsharded generator");
+    }
+
+    @Test
+    void testPagesAreMergedNewestFirstAcrossShards() {
+        // Given: 30 notifications over many recipients, one minute apart
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            notifications.add(notification("user" + i + "@example.com", i % 2 == 0 ? NotificationStatus.SENT : NotificationStatus.FAILED,
+                    base.plusMinutes(i)));
+        }
+        repository.saveAll(notifications);
+        Set<Integer> shardsUsed = new HashSet<>();
+        notifications.forEach(n -> shardsUsed.add(repository.shardFor(n.getRecipient())));
+
+        // When: page through everything, 7 at a time
+        List<Notification> seen = new ArrayList<>();
+        LocalDateTime cursorCreatedAt = LocalDateTime.of(9999, 1, 1, 0, 0);
+        long cursorId = Long.MAX_VALUE;
+        Slice<Notification> slice;
+        do {
+            slice = repository.findPageBefore(cursorCreatedAt, cursorId, PageRequest.of(0, 7));
+            seen.addAll(slice.getContent());
+            Notification last = slice.getContent().get(slice.getContent().size() - 1);
+            cursorCreatedAt = last.getCreatedAt();
+            cursorId = last.getId();
+        } while (slice.hasNext());
+
+        // Then
+        assertEquals(SHARDS, shardsUsed.size());
+        assertEquals(30, seen.size());
+        for (int i = 0; i < 30; i++) {
+            assertEquals(base.plusMinutes(29 - i), seen.get(i).getCreatedAt());
+        }
+
+        Slice<Notification> failed = repository.findPageByStatusBefore(NotificationStatus.FAILED,
+                LocalDateTime.of(9999, 1, 1, 0, 0), Long.MAX_VALUE, PageRequest.of(0, 20));
+        assertEquals(15, failed.getContent().size());
+        assertFalse(failed.hasNext());
+    }
+
+    @Test
+    void testCountsAreSummedAcrossShards() {
+        // Given
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            notifications.add(notification("user" + i + "@example.com", i < 5 ? NotificationStatus.FAILED : NotificationStatus.SENT, base.plusHours(i)));
+        }
+        repository.saveAll(notifications);
+
+        // When
+        long failed = repository.countByStatus(NotificationStatus.FAILED);
+        long inRange = repository.countByTypeAndDateRange(NotificationType.EMAIL, base.plusHours(2), base.plusHours(5));
+
+        // Then
+        assertEquals(5, failed);
+        assertEquals(4, inRange);
+    }
+
+    @Test
+    void testFindByIdAndAttachDetails() {
+        // Given
+        Notification first = notification("a@example.com", NotificationStatus.FAILED, LocalDateTime.now());
+        first.setErrorMessage("SMTP unavailable");
+        first.setPayload("{\"to\":\"a@example.com\"}");
+        Notification second = notification("b@example.com", NotificationStatus.SENT, LocalDateTime.now());
+        second.setContent("Hello");
+        repository.saveAll(List.of(first, second));
+
+        // When
+        List<Notification> loaded = repository.findAllById(List.of(first.getId(), second.getId()));
+        repository.attachDetails(loaded);
+
+        // Then
+        assertEquals(2, loaded.size());
+        Notification loadedFirst = loaded.stream().filter(n -> n.getId().equals(first.getId())).findFirst().orElseThrow();
+        Notification loadedSecond = loaded.stream().filter(n -> n.getId().equals(second.getId())).findFirst().orElseThrow();
+        assertEquals("SMTP unavailable", loadedFirst.getErrorMessage());
+        assertNotNull(loadedFirst.getPayload());
+        assertEquals("Hello", loadedSecond.getContent());
+    }
+
+    @Test
+    void testRetryAfterPartialFailureDoesNotDuplicateRows() {
+        // Given: a batch committed on every shard but one
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Notification notification = notification("user" + i + "@example.com", NotificationStatus.SENT, base.plusMinutes(i));
+            notification.setContent("Hello " + i);
+            notifications.add(notification);
+        }
+        repository.saveAll(notifications);
+        List<Long> ids = notifications.stream().map(Notification::getId).toList();
+        int failedShard = repository.shardFor(notifications.get(0).getRecipient());
+        shardJdbc.get(failedShard).update("DELETE FROM notification_details");
+        shardJdbc.get(failedShard).update("DELETE FROM notifications");
+
+        // When
+        repository.saveAll(notifications);
+
+        // Then
+        assertEquals(ids, notifications.stream().map(Notification::getId).toList());
+        long rows = 0;
+        long details = 0;
+        for (JdbcTemplate jdbc : shardJdbc) {
+            rows += jdbc.queryForObject("SELECT COUNT(*) FROM notifications", Long.class);
+            details += jdbc.queryForObject("SELECT COUNT(*) FROM notification_details", Long.class);
+        }
+        assertEquals(12, rows);
+        assertEquals(12, details);
+    }
+
+    @Test
+    void testReferencedContentHashesFoundOnAnyShard() {
+        // Given
+        Notification first = notification("a@example.com", NotificationStatus.SENT, LocalDateTime.now());
+        first.setContentHash("hash-a");
+        Notification second = notification("b@example.com", NotificationStatus.SENT, LocalDateTime.now());
+        second.setContentHash("hash-b");
+        repository.saveAll(List.of(first, second));
+
+        // When
+        Set<String> referenced = repository.findReferencedContentHashes(List.of("hash-a", "hash-b", "hash-c"));
+
+        // Then
+        assertEquals(Set.of("hash-a", "hash-b"), referenced);
+    }
+
+    private static Notification notification(String recipient, NotificationStatus status, LocalDateTime createdAt) {
+        Notification notification = new Notification(NotificationType.EMAIL, recipient, null, status);
+        notification.setCreatedAt(createdAt);
+        return notification;
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:sharding-" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+}
@@ -0,0 +1,69 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.dto.AuthRequest;
+import com.notificationservice.model.entity.User;
+import com.notificationservice.repository.UserRepository;
+import com.notificationservice.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for AuthService
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private LastLoginWriteBehind lastLoginWriteBehind;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @InjectMocks
+    private AuthService authService;
+
+    @Test
+    void testRehashWritesOnlyThePasswordAndLeavesTheCachedUserAlone() {
+        // Given: the cached user carries an old cost and whatever last_login it was loaded with
+        User cached = new User("alice", "$2a$08$oldhash", "alice@example.com");
+        cached.setId(7L);
+        when(userCache.findByUsername("alice")).thenReturn(Optional.of(cached));
+        when(passwordHashingService.matches("secret", "$2a$08$oldhash")).thenReturn(true);
+        when(passwordHashingService.needsRehash("$2a$08$oldhash")).thenReturn(true);
+        when(passwordHashingService.encode("secret")).thenReturn("$2a$10$newhash");
+
+        // When
+        authService.authenticate(new AuthRequest("alice", "secret"));
+
+        // Then
+        verify(userRepository).updatePassword(7L, "$2a$10$newhash");
+        verify(userRepository, never()).save(any());
+        verify(userCache).invalidate("alice");
+        verify(lastLoginWriteBehind).record(eq(7L), any());
+        assertEquals("$2a$08$oldhash", cached.getPassword());
+    }
+}
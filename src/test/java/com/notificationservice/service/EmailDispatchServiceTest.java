@@ -0,0 +1,152 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.model.dto.EmailNotificationRequest;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.repository.NotificationDetailRepository;
+import com.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for EmailDispatchService against H2
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class EmailDispatchServiceTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationDetailRepository detailRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private EmailService emailService;
+
+    private NotificationStatsService statsService;
+
+    private EmailDispatchService dispatchService;
+
+    @BeforeEach
+    void setUp() {
+        emailService = mock(EmailService.class);
+        statsService = mock(NotificationStatsService.class);
+
+        NotificationDetailService detailService = new NotificationDetailService();
+        ReflectionTestUtils.setField(detailService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(detailService, "detailRepository", detailRepository);
+        ReflectionTestUtils.setField(detailService, "contentStore", mock(NotificationContentStore.class));
+
+        NotificationRetryService retryService = new NotificationRetryService();
+        ReflectionTestUtils.setField(retryService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(retryService, "enabled", true);
+        ReflectionTestUtils.setField(retryService, "initialBackoffMs", 1000L);
+        ReflectionTestUtils.setField(retryService, "maxBackoffMs", 60000L);
+
+        dispatchService = new EmailDispatchService();
+        ReflectionTestUtils.setField(dispatchService, "emailService", emailService);
+        ReflectionTestUtils.setField(dispatchService, "detailService", detailService);
+        ReflectionTestUtils.setField(dispatchService, "contentStore", mock(NotificationContentStore.class));
+        ReflectionTestUtils.setField(dispatchService, "statsService", statsService);
+        ReflectionTestUtils.setField(dispatchService, "recentCache", mock(RecentNotificationCache.class));
+        ReflectionTestUtils.setField(dispatchService, "searchIndex", mock(NotificationSearchIndex.class));
+        ReflectionTestUtils.setField(dispatchService, "retryService", retryService);
+        ReflectionTestUtils.setField(dispatchService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(dispatchService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(dispatchService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(dispatchService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatchService, "threads", 2);
+        ReflectionTestUtils.setField(dispatchService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(dispatchService, "statusBatchSize", 100);
+        ReflectionTestUtils.setField(dispatchService, "pendingTimeoutMs", 600000L);
+        ReflectionTestUtils.setField(dispatchService, "shutdownTimeoutMs", 5000L);
+        dispatchService.init();
+    }
+
+    private EmailNotificationRequest request() {
+        EmailNotificationRequest request = new EmailNotificationRequest();
+        request.setTo("a@example.com");
+        request.setSubject("Welcome");
+        request.setBody("Hello");
+        return request;
+    }
+
+    private Map<String, Object> row(Long id) {
+        return jdbcTemplate.queryForMap(
+                "SELECT status, sent_at, attempts, next_attempt_at FROM notifications WHERE id = ?", id);
+    }
+
+    private static NotificationStatus status(Map<String, Object> row) {
+        return NotificationStatus.fromCode(((Number) row.get("STATUS")).intValue());
+    }
+
+    @Test
+    void testSubmitRecordsPendingThenSent() throws Exception {
+        // Given: the send is held until the PENDING row has been checked
+        CountDownLatch sendAllowed = new CountDownLatch(1);
+        doAnswer(invocation -> sendAllowed.await(5, TimeUnit.SECONDS)).when(emailService).sendEmail(any());
+
+        // When
+        Notification notification = dispatchService.submit(request());
+        notificationRepository.flush();
+
+        // Then: PENDING until the outcome is written
+        assertEquals(NotificationStatus.PENDING, status(row(notification.getId())));
+
+        sendAllowed.countDown();
+        dispatchService.shutdown(); // waits for the sender and flushes statuses
+        Map<String, Object> row = row(notification.getId());
+        assertEquals(NotificationStatus.SENT, status(row));
+        assertNotNull(row.get("SENT_AT"));
+        assertEquals(1, row.get("ATTEMPTS"));
+        assertNull(row.get("NEXT_ATTEMPT_AT"));
+        verify(statsService).transition(any(Notification.class), any());
+    }
+
+    @Test
+    void testFailedSendRecordedForRetry() {
+        // Given
+        doThrow(new RuntimeException("SMTP unavailable")).when(emailService).sendEmail(any());
+
+        // When
+        Notification notification = dispatchService.submit(request());
+        notificationRepository.flush();
+        dispatchService.shutdown();
+
+        // Then
+        Map<String, Object> row = row(notification.getId());
+        assertEquals(NotificationStatus.FAILED, status(row));
+        assertNull(row.get("SENT_AT"));
+        assertNotNull(row.get("NEXT_ATTEMPT_AT"));
+        assertEquals("SMTP unavailable", jdbcTemplate.queryForObject(
+                "SELECT error_message FROM notification_details WHERE notification_id = ?",
+                String.class, notification.getId()));
+    }
+}
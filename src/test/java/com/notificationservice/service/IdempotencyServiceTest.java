@@ -0,0 +1,136 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.model.dto.EmailNotificationRequest;
+import com.notificationservice.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for IdempotencyService against H2
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger sends = new AtomicInteger();
+
+    private IdempotencyService newService() {
+        IdempotencyService service = new IdempotencyService();
+        ReflectionTestUtils.setField(service, "idempotencyRecordRepository", idempotencyRecordRepository);
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "ttlMillis", 60000L);
+        ReflectionTestUtils.setField(service, "inProgressTimeoutMillis", 60000L);
+        ReflectionTestUtils.setField(service, "cacheSize", 100);
+        service.init();
+        return service;
+    }
+
+    private EmailNotificationRequest request(String subject) {
+        EmailNotificationRequest request = new EmailNotificationRequest();
+        request.setTo("a@example.com");
+        request.setSubject(subject);
+        request.setBody("Hello");
+        return request;
+    }
+
+    private final Supplier<ResponseEntity<?>> send = () -> {
+        sends.incrementAndGet();
+        return ResponseEntity.ok(Map.of("status", "success", "recipient", "a@example.com"));
+    };
+
+    @Test
+    void testRetryReplaysResponseWithoutSendingAgain() {
+        // Given
+        IdempotencyService service = newService();
+        service.execute("EMAIL", "key-1", request("Welcome"), send);
+
+        // When: a retry on this node, then one on another node
+        ResponseEntity<?> local = service.execute("EMAIL", "key-1", request("Welcome"), send);
+        ResponseEntity<?> remote = newService().execute("EMAIL", "key-1", request("Welcome"), send);
+
+        // Then
+        assertEquals(1, sends.get());
+        assertEquals(HttpStatus.OK, remote.getStatusCode());
+        assertEquals("true", local.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("a@example.com", ((Map<?, ?>) remote.getBody()).get("recipient"));
+    }
+
+    @Test
+    void testKeyReusedWithDifferentRequestRejected() {
+        // Given
+        IdempotencyService service = newService();
+        service.execute("EMAIL", "key-2", request("Welcome"), send);
+
+        // When: a different body, then the same body while a claim is held elsewhere
+        ResponseEntity<?> response = service.execute("EMAIL", "key-2", request("Goodbye"), send);
+        jdbcTemplate.update("UPDATE idempotency_keys SET response_status = NULL WHERE idempotency_key = 'key-2'");
+        ResponseEntity<?> inProgress = newService().execute("EMAIL", "key-2", request("Welcome"), send);
+
+        // Then
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, inProgress.getStatusCode());
+        assertEquals(1, sends.get());
+    }
+
+    @Test
+    void testFailedRequestReleasesKey() {
+        // Given
+        IdempotencyService service = newService();
+
+        // When
+        assertThrows(IllegalStateException.class, () -> service.execute("QUEUE", "key-3", request("Welcome"), () -> {
+            throw new IllegalStateException("boom");
+        }));
+        ResponseEntity<?> retry = service.execute("QUEUE", "key-3", request("Welcome"), send);
+
+        // Then
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertNull(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(1, sends.get());
+    }
+
+    @Test
+    void testErrorResponseIsNotStoredAndRetryRunsAgain() {
+        // Given: the first attempt fails the way the controller reports it
+        IdempotencyService service = newService();
+        ResponseEntity<?> failure = service.execute("EMAIL", "key-4", request("Welcome"), () ->
+                ResponseEntity.badRequest().body(Map.of("status", "error", "message", "SMTP unavailable")));
+
+        // When
+        ResponseEntity<?> retry = service.execute("EMAIL", "key-4", request("Welcome"), send);
+        ResponseEntity<?> replay = newService().execute("EMAIL", "key-4", request("Welcome"), send);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, failure.getStatusCode());
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertNull(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("true", replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(1, sends.get());
+        assertEquals(1, service.cacheSize());
+    }
+}
@@ -0,0 +1,128 @@
+package com.notificationservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for LastLoginWriteBehind
+ */
+@ExtendWith(MockitoExtension.class)
+class LastLoginWriteBehindTest {
+
+    private static final LocalDateTime LOGIN = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private LastLoginWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        writeBehind = new LastLoginWriteBehind();
+        ReflectionTestUtils.setField(writeBehind, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writeBehind, "maxPending", 3);
+        ReflectionTestUtils.setField(writeBehind, "maxStalenessMs", 60000L);
+        writeBehind.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLoginsAreCoalescedPerUser() {
+        // Given
+        writeBehind.record(1L, LOGIN.plusMinutes(5));
+        writeBehind.record(1L, LOGIN);
+        writeBehind.record(2L, LOGIN);
+
+        // When
+        writeBehind.flush();
+
+        // Then: one row per user, with the latest timestamp
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        assertEquals(2, batch.getValue().size());
+        Object[] first = batch.getValue().stream().filter(row -> row[1].equals(1L)).findFirst().orElseThrow();
+        assertEquals(Timestamp.valueOf(LOGIN.plusMinutes(5)), first[0]);
+        assertEquals(0, writeBehind.pendingCount());
+    }
+
+    @Test
+    void testFailedFlushIsRetried() {
+        // Given
+        doThrow(new RuntimeException("Database unavailable")).doReturn(new int[]{1})
+                .when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        writeBehind.record(1L, LOGIN);
+
+        // When
+        writeBehind.flush();
+
+        // Then: kept for the next run, which writes it
+        assertEquals(1, writeBehind.pendingCount());
+        writeBehind.flush();
+        assertEquals(0, writeBehind.pendingCount());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void testFullBufferIsFlushedOffTheLoginThread() throws InterruptedException {
+        // Given
+        AtomicReference<String> flushThread = new AtomicReference<>();
+        CountDownLatch flushed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushThread.set(Thread.currentThread().getName());
+            flushed.countDown();
+            return new int[0];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        // When
+        writeBehind.record(1L, LOGIN);
+        writeBehind.record(2L, LOGIN);
+        writeBehind.record(3L, LOGIN);
+
+        // Then
+        assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        assertEquals("last-login-flusher", flushThread.get());
+    }
+
+    @Test
+    void testShutdownFlushesPendingLogins() {
+        // Given
+        writeBehind.record(1L, LOGIN);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+
+        // When
+        writeBehind.shutdown();
+
+        // Then
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        assertEquals(0, writeBehind.pendingCount());
+    }
+}
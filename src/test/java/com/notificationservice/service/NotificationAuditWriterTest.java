@@ -0,0 +1,127 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for NotificationAuditWriter
+ */
+class NotificationAuditWriterTest {
+
+    private NotificationDetailService detailService;
+
+    private NotificationAuditWriter auditWriter;
+
+    @BeforeEach
+    void setUp() {
+        detailService = mock(NotificationDetailService.class);
+        when(detailService.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        auditWriter = new NotificationAuditWriter();
+        ReflectionTestUtils.setField(auditWriter, "detailService", detailService);
+        ReflectionTestUtils.setField(auditWriter, "statsService", mock(NotificationStatsService.class));
+        ReflectionTestUtils.setField(auditWriter, "recentCache", mock(RecentNotificationCache.class));
+        ReflectionTestUtils.setField(auditWriter, "searchIndex", mock(NotificationSearchIndex.class));
+        ReflectionTestUtils.setField(auditWriter, "contentStore", mock(NotificationContentStore.class));
+        ReflectionTestUtils.setField(auditWriter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(auditWriter, "bufferCapacity", 2);
+        ReflectionTestUtils.setField(auditWriter, "flushSize", 10);
+        ReflectionTestUtils.setField(auditWriter, "flushIntervalMs", 50L);
+        ReflectionTestUtils.setField(auditWriter, "fullPolicy", NotificationAuditWriter.FullPolicy.SPILL);
+        ReflectionTestUtils.setField(auditWriter, "blockTimeoutMs", 10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditWriter.shutdown();
+    }
+
+    @Test
+    void testRecordsWrittenInBatches() {
+        // Given
+        auditWriter.init();
+
+        // When
+        auditWriter.enqueue(new Notification(NotificationType.EMAIL, "a@example.com", "Hello", NotificationStatus.SENT));
+        auditWriter.enqueue(new Notification(NotificationType.EMAIL, "b@example.com", "Hello", NotificationStatus.SENT));
+
+        // Then
+        verify(detailService, timeout(2000)).saveAll(argThat(batch -> ((List<?>) batch).size() == 2));
+        verify(detailService, never()).save(any());
+    }
+
+    @Test
+    void testFullBufferSpillsToCallerThread() {
+        // Given: a stopped writer thread, so nothing drains the buffer
+        auditWriter.init();
+        ReflectionTestUtils.setField(auditWriter, "running", false);
+        auditWriter.shutdown();
+
+        // When
+        auditWriter.enqueue(new Notification(NotificationType.EMAIL, "a@example.com", "Hello", NotificationStatus.SENT));
+        auditWriter.enqueue(new Notification(NotificationType.EMAIL, "b@example.com", "Hello", NotificationStatus.SENT));
+        auditWriter.enqueue(new Notification(NotificationType.EMAIL, "c@example.com", "Hello", NotificationStatus.SENT));
+
+        // Then
+        assertEquals(2, auditWriter.pending());
+        verify(detailService).save(any(Notification.class));
+    }
+
+    @Test
+    void testFailedBatchRetriedRowByRow() {
+        // Given
+        when(detailService.saveAll(anyList())).thenThrow(new RuntimeException("constraint violation"));
+        auditWriter.init();
+        ReflectionTestUtils.setField(auditWriter, "running", false);
+        auditWriter.shutdown();
+        auditWriter.enqueue(new Notification(NotificationType.EMAIL, "a@example.com", "Hello", NotificationStatus.SENT));
+        auditWriter.enqueue(new Notification(NotificationType.EMAIL, "b@example.com", "Hello", NotificationStatus.SENT));
+
+        // When
+        auditWriter.flush();
+
+        // Then
+        assertEquals(0, auditWriter.pending());
+        verify(detailService, timeout(1000).times(2)).save(any(Notification.class));
+    }
+
+    @Test
+    void testFailingSideEffectDoesNotRewriteTheBatch() {
+        // Given: the batch commits, then the search index throws
+        NotificationSearchIndex searchIndex = mock(NotificationSearchIndex.class);
+        doThrow(new RuntimeException("index full")).when(searchIndex).add(anyCollection());
+        ReflectionTestUtils.setField(auditWriter, "searchIndex", searchIndex);
+        auditWriter.init();
+        ReflectionTestUtils.setField(auditWriter, "running", false);
+        auditWriter.shutdown();
+        auditWriter.enqueue(new Notification(NotificationType.EMAIL, "a@example.com", "Hello", NotificationStatus.SENT));
+        auditWriter.enqueue(new Notification(NotificationType.EMAIL, "b@example.com", "Hello", NotificationStatus.SENT));
+
+        // When
+        auditWriter.flush();
+
+        // Then
+        verify(detailService).saveAll(anyList());
+        verify(detailService, never()).save(any());
+    }
+}
@@ -0,0 +1,134 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationContent;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.repository.NotificationContentRepository;
+import com.notificationservice.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for NotificationContentStore against H2
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class NotificationContentStoreTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationContentRepository contentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private NotificationContentStore contentStore;
+
+    @BeforeEach
+    void setUp() {
+        contentStore = newContentStore();
+    }
+
+    private NotificationContentStore newContentStore() {
+        NotificationContentStore store = new NotificationContentStore();
+        ReflectionTestUtils.setField(store, "contentRepository", contentRepository);
+        ReflectionTestUtils.setField(store, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "compressThresholdBytes", 64);
+        ReflectionTestUtils.setField(store, "knownHashTtlMillis", 60000L);
+        ReflectionTestUtils.setField(store, "cacheSize", 100);
+        return store;
+    }
+
+    @Test
+    void testBroadcastBodyStoredOnceAndCompressed() {
+        // Given
+        String body = "Our summer sale starts today! ".repeat(50);
+        List<Notification> batch = List.of(
+                new Notification(NotificationType.EMAIL, "a@example.com", body, NotificationStatus.SENT),
+                new Notification(NotificationType.EMAIL, "b@example.com", body, NotificationStatus.SENT),
+                new Notification(NotificationType.EMAIL, "c@example.com", "short", NotificationStatus.SENT));
+
+        // When
+        contentStore.externalize(batch);
+        notificationRepository.saveAllAndFlush(batch);
+
+        // Then
+        assertEquals(2, contentRepository.count());
+        assertEquals(batch.get(0).getContentHash(), batch.get(1).getContentHash());
+        assertNull(batch.get(0).getInlineContent());
+        assertEquals(body, batch.get(0).getContent());
+
+        NotificationContent stored = contentRepository.findById(batch.get(0).getContentHash()).orElseThrow();
+        assertTrue(stored.getCompressed());
+        assertTrue(stored.getData().length < body.length());
+        NotificationContent small = contentRepository.findById(batch.get(2).getContentHash()).orElseThrow();
+        assertFalse(small.getCompressed());
+    }
+
+    @Test
+    void testResolveLoadsContentOnRead() {
+        // Given
+        String body = "Your verification code expires soon. ".repeat(10);
+        Notification notification = new Notification(NotificationType.EMAIL, "a@example.com", body, NotificationStatus.SENT);
+        contentStore.externalize(List.of(notification));
+        notificationRepository.saveAndFlush(notification);
+
+        // When: a fresh copy as a history read would load it
+        Notification loaded = new Notification(NotificationType.EMAIL, "a@example.com", null, NotificationStatus.SENT);
+        loaded.setContentHash(notification.getContentHash());
+        newContentStore().resolve(List.of(loaded));
+
+        // Then
+        assertEquals(body, loaded.getContent());
+    }
+
+    @Test
+    void testAlreadyStoredBodyNotInsertedAgain() {
+        // Given
+        contentStore.externalize(List.of(new Notification(NotificationType.QUEUE, "a@example.com", "repeat me", NotificationStatus.QUEUED)));
+
+        // When: another node (fresh cache) writes the same body
+        newContentStore().externalize(List.of(new Notification(NotificationType.QUEUE, "b@example.com", "repeat me", NotificationStatus.QUEUED)));
+
+        // Then
+        assertEquals(1, contentRepository.count());
+    }
+
+    @Test
+    void testReusedBodyIsKeptByRetention() {
+        // Given: a body stored long ago that nothing references any more
+        contentStore.externalize(List.of(new Notification(NotificationType.EMAIL, "a@example.com", "reset your password", NotificationStatus.SENT)));
+        jdbcTemplate.update("UPDATE notification_contents SET created_at = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(200)));
+
+        // When: another node writes the same body just before the purge runs
+        newContentStore().externalize(List.of(new Notification(NotificationType.EMAIL, "b@example.com", "reset your password", NotificationStatus.SENT)));
+        NotificationRetentionService retentionService = new NotificationRetentionService();
+        ReflectionTestUtils.setField(retentionService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(retentionService, "chunkSize", 100);
+        ReflectionTestUtils.setField(retentionService, "maxChunksPerRun", 10);
+        long deleted = retentionService.deleteOrphanedContent(LocalDateTime.now().minusDays(180));
+
+        // Then
+        assertEquals(0, deleted);
+        assertEquals(1, contentRepository.count());
+    }
+}
@@ -0,0 +1,140 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.repository.NotificationContentRepository;
+import com.notificationservice.repository.NotificationDetailRepository;
+import com.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests for NotificationExportService against H2
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class NotificationExportServiceTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationDetailRepository detailRepository;
+
+    @Autowired
+    private NotificationContentRepository contentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private NotificationDetailService detailService;
+
+    private NotificationExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        NotificationContentStore contentStore = new NotificationContentStore();
+        ReflectionTestUtils.setField(contentStore, "contentRepository", contentRepository);
+        ReflectionTestUtils.setField(contentStore, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(contentStore, "enabled", true);
+        ReflectionTestUtils.setField(contentStore, "compressThresholdBytes", 64);
+        ReflectionTestUtils.setField(contentStore, "knownHashTtlMillis", 60000L);
+        ReflectionTestUtils.setField(contentStore, "cacheSize", 100);
+
+        detailService = new NotificationDetailService();
+        ReflectionTestUtils.setField(detailService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(detailService, "detailRepository", detailRepository);
+        ReflectionTestUtils.setField(detailService, "contentStore", contentStore);
+
+        exportService = new NotificationExportService();
+        ReflectionTestUtils.setField(exportService, "dataSource", dataSource);
+        ReflectionTestUtils.setField(exportService, "contentStore", contentStore);
+        ReflectionTestUtils.setField(exportService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(exportService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(exportService, "fetchSize", 2);
+        ReflectionTestUtils.setField(exportService, "chunkSize", 2);
+        exportService.init();
+
+        List<Notification> notifications = List.of(
+                new Notification(NotificationType.EMAIL, "a@example.com", "Welcome aboard", NotificationStatus.SENT),
+                new Notification(NotificationType.EMAIL, "b@example.com", "Your invoice, \"March\"", NotificationStatus.FAILED),
+                new Notification(NotificationType.QUEUE, "a@example.com", "ORDER: shipped", NotificationStatus.QUEUED));
+        contentStore.externalize(notifications);
+        detailService.saveAll(notifications);
+        notificationRepository.flush();
+    }
+
+    private String export(NotificationExportService.Format format, String recipient, boolean includeContent)
+            throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(format, recipient, null, null, null, includeContent, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testNdjsonStreamsEveryRowWithContent() throws Exception {
+        // When: three rows across two chunks
+        String[] lines = export(NotificationExportService.Format.NDJSON, null, true).split("\n");
+
+        // Then
+        assertEquals(3, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("a@example.com", first.get("recipient").asText());
+        assertEquals("Welcome aboard", first.get("content").asText());
+        assertEquals("ORDER: shipped", objectMapper.readTree(lines[2]).get("content").asText());
+    }
+
+    @Test
+    void testCsvQuotesValuesAndAppliesFilters() throws Exception {
+        // When
+        String all = export(NotificationExportService.Format.CSV, null, true);
+        String filtered = export(NotificationExportService.Format.CSV, "a@example.com", false);
+
+        // Then
+        String[] rows = all.split("\r\n");
+        assertEquals("id,type,recipient,status,createdAt,sentAt,attempts,errorMessage,content", rows[0]);
+        assertEquals(4, rows.length);
+        assertEquals("\"Your invoice, \"\"March\"\"\"", rows[2].substring(rows[2].lastIndexOf(",\"") + 1));
+
+        String[] filteredRows = filtered.split("\r\n");
+        assertEquals(3, filteredRows.length);
+        assertEquals("id,type,recipient,status,createdAt,sentAt,attempts,errorMessage", filteredRows[0]);
+        assertFalse(filtered.contains("b@example.com"));
+    }
+
+    @Test
+    void testEmptyRangeWritesOnlyHeader() throws Exception {
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = exportService.export(NotificationExportService.Format.CSV, null, null,
+                LocalDateTime.now().plusDays(1), null, false, out);
+
+        // Then
+        assertEquals(0, written);
+        assertEquals("id,type,recipient,status,createdAt,sentAt,attempts,errorMessage\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+}
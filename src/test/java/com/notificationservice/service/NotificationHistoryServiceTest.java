@@ -0,0 +1,122 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.dto.NotificationPage;
+import com.notificationservice.model.dto.NotificationSummary;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.repository.NotificationDetailRepository;
+import com.notificationservice.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for NotificationHistoryService keyset pagination against H2
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class NotificationHistoryServiceTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationDetailRepository detailRepository;
+
+    private NotificationHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        NotificationDetailService detailService = new NotificationDetailService();
+        ReflectionTestUtils.setField(detailService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(detailService, "detailRepository", detailRepository);
+        ReflectionTestUtils.setField(detailService, "contentStore", mock(NotificationContentStore.class));
+
+        historyService = new NotificationHistoryService();
+        ReflectionTestUtils.setField(historyService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(historyService, "detailService", detailService);
+        ReflectionTestUtils.setField(historyService, "defaultLimit", 50);
+        ReflectionTestUtils.setField(historyService, "maxLimit", 500);
+
+        // Two rows share a timestamp so the id tie-breaker is exercised
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Notification notification = new Notification(NotificationType.EMAIL, "alice@example.com", "Message " + i, NotificationStatus.SENT);
+            notification.setCreatedAt(base.plusMinutes(Math.min(i, 3)));
+            notifications.add(notification);
+        }
+        notifications.add(new Notification(NotificationType.EMAIL, "bob@example.com", "Other", NotificationStatus.FAILED));
+        detailService.saveAll(notifications);
+    }
+
+    @Test
+    void testPagesCoverAllRowsNewestFirst() {
+        // Given
+        List<Notification> seen = new ArrayList<>();
+        String cursor = null;
+
+        // When
+        do {
+            NotificationPage<Notification> page = historyService.findPage("alice@example.com", null, cursor, 2);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertEquals(5, seen.size());
+        for (int i = 1; i < seen.size(); i++) {
+            Notification previous = seen.get(i - 1);
+            Notification current = seen.get(i);
+            assertTrue(previous.getCreatedAt().isAfter(current.getCreatedAt())
+                    || (previous.getCreatedAt().equals(current.getCreatedAt()) && previous.getId() > current.getId()));
+        }
+    }
+
+    @Test
+    void testStatusFilterAndLastPage() {
+        // When
+        NotificationPage<Notification> page = historyService.findPage(null, "FAILED", null, 10);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertEquals("bob@example.com", page.getItems().get(0).getRecipient());
+        assertEquals("Other", page.getItems().get(0).getContent());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testSummaryPagesMatchFullPages() {
+        // When
+        NotificationPage<NotificationSummary> summaries = historyService.findSummaryPage("alice@example.com", null, null, 3);
+        NotificationPage<Notification> full = historyService.findPage("alice@example.com", null, null, 3);
+
+        // Then
+        assertEquals(3, summaries.getItems().size());
+        assertEquals(full.getNextCursor(), summaries.getNextCursor());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(full.getItems().get(i).getId(), summaries.getItems().get(i).getId());
+            assertEquals(NotificationStatus.SENT, summaries.getItems().get(i).getStatus());
+        }
+    }
+
+    @Test
+    void testInvalidCursorRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> historyService.findPage(null, null, "not-a-cursor", 10));
+    }
+}
@@ -0,0 +1,246 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.config.RabbitMQConfig;
+import com.notificationservice.model.dto.QueueNotificationRequest;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.OutboxMessage;
+import com.notificationservice.repository.NotificationDetailRepository;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.repository.OutboxMessageRepository;
+import com.notificationservice.repository.ShardedNotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for NotificationOutboxService against H2
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class NotificationOutboxServiceTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationDetailRepository detailRepository;
+
+    @Autowired
+    private OutboxMessageRepository outboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private RabbitOperations operations;
+
+    private NotificationDetailService detailService;
+
+    private NotificationOutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        operations = mock(RabbitOperations.class);
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(inv ->
+                inv.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(operations));
+
+        detailService = new NotificationDetailService();
+        ReflectionTestUtils.setField(detailService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(detailService, "detailRepository", detailRepository);
+        ReflectionTestUtils.setField(detailService, "contentStore", mock(NotificationContentStore.class));
+
+        outboxService = new NotificationOutboxService();
+        ReflectionTestUtils.setField(outboxService, "outboxRepository", outboxRepository);
+        ReflectionTestUtils.setField(outboxService, "detailService", detailService);
+        ReflectionTestUtils.setField(outboxService, "contentStore", mock(NotificationContentStore.class));
+        ReflectionTestUtils.setField(outboxService, "statsService", mock(NotificationStatsService.class));
+        ReflectionTestUtils.setField(outboxService, "recentCache", mock(RecentNotificationCache.class));
+        ReflectionTestUtils.setField(outboxService, "searchIndex", mock(NotificationSearchIndex.class));
+        ReflectionTestUtils.setField(outboxService, "queueService", mock(QueueService.class));
+        ReflectionTestUtils.setField(outboxService, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(outboxService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(outboxService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(outboxService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(outboxService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(outboxService, "batchSize", 10);
+        ReflectionTestUtils.setField(outboxService, "confirmTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(outboxService, "failureBackoffMs", 60000L);
+        ReflectionTestUtils.setField(outboxService, "maxAttempts", 2);
+        ReflectionTestUtils.setField(outboxService, "leaseMs", 60000L);
+        // Counters only; the relay thread is driven by hand
+        outboxService.init();
+        outboxService.shutdown();
+    }
+
+    @Test
+    void testEnqueueWritesNotificationAndOutboxTogether() {
+        // When
+        Notification notification = outboxService.enqueue(
+                new QueueNotificationRequest("EMAIL", "Hello", "a@example.com"));
+
+        // Then
+        assertEquals(NotificationStatus.QUEUED, notificationRepository.findById(notification.getId()).orElseThrow().getStatus());
+        List<OutboxMessage> outbox = outboxRepository.findAll();
+        assertEquals(1, outbox.size());
+        assertEquals(notification.getId(), outbox.get(0).getNotificationId());
+    }
+
+    @Test
+    void testConfirmedBatchPublishedAndDeleted() {
+        // Given
+        outboxService.enqueue(new QueueNotificationRequest("EMAIL", "First", "a@example.com"));
+        outboxService.enqueue(new QueueNotificationRequest("EMAIL", "Second", "b@example.com"));
+
+        // When
+        int published = outboxService.relayBatch();
+
+        // Then
+        assertEquals(2, published);
+        verify(operations, times(2)).convertAndSend(eq(RabbitMQConfig.NOTIFICATION_EXCHANGE),
+                eq(RabbitMQConfig.NOTIFICATION_ROUTING_KEY), any(QueueNotificationRequest.class));
+        verify(operations).waitForConfirmsOrDie(1000L);
+        assertEquals(0, outboxRepository.count());
+        assertEquals(0, outboxService.relayBatch());
+    }
+
+    @Test
+    void testUnconfirmedBatchKeptForRetryAndBackedOff() {
+        // Given
+        outboxService.enqueue(new QueueNotificationRequest("EMAIL", "Hello", "a@example.com"));
+        doThrow(new AmqpTimeoutException("no confirm")).when(operations).waitForConfirmsOrDie(anyLong());
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> outboxService.relayBatch());
+        OutboxMessage message = outboxRows().get(0);
+        assertEquals(1, message.getAttempts());
+        assertEquals("no confirm", message.getLastError());
+        assertNull(message.getParkedAt());
+        assertTrue(message.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        // Not due again until the backoff has passed
+        assertEquals(0, outboxService.relayBatch());
+    }
+
+    @Test
+    void testRowParkedAfterMaxAttempts() {
+        // Given
+        outboxService.enqueue(new QueueNotificationRequest("EMAIL", "Hello", "a@example.com"));
+        doThrow(new AmqpTimeoutException("no confirm")).when(operations).waitForConfirmsOrDie(anyLong());
+        assertThrows(IllegalStateException.class, () -> outboxService.relayBatch());
+        jdbcTemplate.update("UPDATE notification_outbox SET next_attempt_at = NULL");
+
+        // When
+        assertThrows(IllegalStateException.class, () -> outboxService.relayBatch());
+
+        // Then
+        OutboxMessage message = outboxRows().get(0);
+        assertEquals(2, message.getAttempts());
+        assertNotNull(message.getParkedAt());
+        assertNull(message.getNextAttemptAt());
+        assertEquals(0, outboxService.relayBatch());
+    }
+
+    @Test
+    void testUnreadablePayloadParkedWithoutBlockingTheBatch() {
+        // Given: the oldest row cannot be deserialized
+        outboxService.enqueue(new QueueNotificationRequest("EMAIL", "First", "a@example.com"));
+        outboxService.enqueue(new QueueNotificationRequest("EMAIL", "Second", "b@example.com"));
+        Long poison = jdbcTemplate.queryForObject("SELECT MIN(id) FROM notification_outbox", Long.class);
+        jdbcTemplate.update("UPDATE notification_outbox SET payload = 'not json' WHERE id = ?", poison);
+
+        // When
+        int published = outboxService.relayBatch();
+
+        // Then
+        assertEquals(1, published);
+        List<OutboxMessage> remaining = outboxRows();
+        assertEquals(1, remaining.size());
+        assertEquals(poison, remaining.get(0).getId());
+        assertNotNull(remaining.get(0).getParkedAt());
+        assertNotNull(remaining.get(0).getLastError());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testShardedNotificationWrittenByTheRelayAndRetriedWithItsId() {
+        // Given: ids come from the shard block, and the first shard write fails
+        ShardedNotificationRepository shardedRepository = mock(ShardedNotificationRepository.class);
+        doAnswer(inv -> {
+            inv.<Collection<Notification>>getArgument(0).forEach(n -> n.setId(42L));
+            return null;
+        }).when(shardedRepository).assignIds(anyCollection());
+        when(shardedRepository.saveAll(anyList()))
+                .thenThrow(new IllegalStateException("shard down"))
+                .thenAnswer(inv -> inv.getArgument(0));
+        ReflectionTestUtils.setField(outboxService, "shardedRepository", shardedRepository);
+        ReflectionTestUtils.setField(detailService, "shardedRepository", shardedRepository);
+
+        // When
+        Notification notification = outboxService.enqueue(new QueueNotificationRequest("EMAIL", "Hello", "a@example.com"));
+
+        // Then: only the outbox row is written by the request
+        assertEquals(42L, notification.getId());
+        assertEquals(0, notificationRepository.count());
+        assertEquals(42L, outboxRows().get(0).getNotificationId());
+
+        // When
+        assertThrows(IllegalStateException.class, () -> outboxService.relayBatch());
+        jdbcTemplate.update("UPDATE notification_outbox SET next_attempt_at = NULL");
+        int published = outboxService.relayBatch();
+
+        // Then: nothing was published before the shard write succeeded
+        assertEquals(1, published);
+        ArgumentCaptor<List<Notification>> written = ArgumentCaptor.forClass(List.class);
+        verify(shardedRepository, times(2)).saveAll(written.capture());
+        assertEquals(42L, written.getValue().get(0).getId());
+        assertEquals(NotificationStatus.QUEUED, written.getValue().get(0).getStatus());
+        verify(operations, times(1)).convertAndSend(eq(RabbitMQConfig.NOTIFICATION_EXCHANGE),
+                eq(RabbitMQConfig.NOTIFICATION_ROUTING_KEY), any(QueueNotificationRequest.class));
+        assertEquals(0, outboxRepository.count());
+    }
+
+    /** The relay writes with JDBC, so read past the persistence context */
+    private List<OutboxMessage> outboxRows() {
+        entityManager.clear();
+        return outboxRepository.findAll();
+    }
+}
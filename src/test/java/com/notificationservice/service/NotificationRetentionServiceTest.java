@@ -0,0 +1,137 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationDetail;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.repository.NotificationDetailRepository;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.repository.ShardedNotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for NotificationRetentionService chunked purge against H2
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class NotificationRetentionServiceTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationDetailRepository detailRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private NotificationRetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        retentionService = new NotificationRetentionService();
+        ReflectionTestUtils.setField(retentionService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(retentionService, "contentStore", mock(NotificationContentStore.class));
+        ReflectionTestUtils.setField(retentionService, "searchIndex", mock(NotificationSearchIndex.class));
+        ReflectionTestUtils.setField(retentionService, "enabled", true);
+        ReflectionTestUtils.setField(retentionService, "retentionDays", 30);
+        ReflectionTestUtils.setField(retentionService, "chunkSize", 3);
+        ReflectionTestUtils.setField(retentionService, "chunkPauseMs", 0L);
+        ReflectionTestUtils.setField(retentionService, "maxChunksPerRun", 10000);
+    }
+
+    @Test
+    void testOnlyExpiredRowsDeleted() {
+        // Given: old and recent rows interleaved by id
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Notification notification = new Notification(NotificationType.EMAIL, "user" + i + "@example.com", "Hello", NotificationStatus.SENT);
+            notification.setCreatedAt(i % 2 == 0 ? now.minusDays(60) : now.minusDays(1));
+            notifications.add(notification);
+        }
+        notificationRepository.saveAllAndFlush(notifications);
+        detailRepository.saveAllAndFlush(notifications.stream().map(NotificationDetail::new).toList());
+
+        // When
+        retentionService.purgeExpired();
+
+        // Then
+        List<Notification> remaining = notificationRepository.findAll();
+        assertEquals(10, remaining.size());
+        assertTrue(remaining.stream().allMatch(n -> n.getCreatedAt().isAfter(now.minusDays(30))));
+        assertEquals(remaining.stream().map(Notification::getId).sorted().toList(),
+                detailRepository.findAll().stream().map(NotificationDetail::getNotificationId).sorted().toList());
+    }
+
+    @Test
+    void testDetailsBelowOldestNotificationDeleted() {
+        // Given: details whose notifications were dropped with a partition
+        Notification kept = notificationRepository.saveAndFlush(new Notification(NotificationType.EMAIL, "a@example.com", "Hi", NotificationStatus.SENT));
+        for (long id = kept.getId() - 5; id <= kept.getId(); id++) {
+            NotificationDetail detail = new NotificationDetail();
+            detail.setNotificationId(id);
+            detail.setContent("Hi");
+            detailRepository.save(detail);
+        }
+        detailRepository.flush();
+
+        // When
+        long deleted = retentionService.deleteOrphanedDetails();
+
+        // Then
+        assertEquals(5, deleted);
+        assertEquals(List.of(kept.getId()),
+                detailRepository.findAll().stream().map(NotificationDetail::getNotificationId).toList());
+    }
+
+    @Test
+    void testContentReferencedOnAShardIsKept() {
+        // Given: three old contents no primary detail row uses, two of them used on a shard
+        Timestamp old = Timestamp.valueOf(LocalDateTime.now().minusDays(60));
+        for (String hash : List.of("hash-a", "hash-b", "hash-c")) {
+            jdbcTemplate.update("INSERT INTO notification_contents (content_hash, compressed, original_size, data, created_at) " +
+                    "VALUES (?, FALSE, 5, ?, ?)", hash, "Hello".getBytes(StandardCharsets.UTF_8), old);
+        }
+        ShardedNotificationRepository shardedRepository = mock(ShardedNotificationRepository.class);
+        when(shardedRepository.findReferencedContentHashes(anyCollection()))
+                .thenAnswer(inv -> inv.<Collection<String>>getArgument(0).stream()
+                        .filter(hash -> !hash.equals("hash-c"))
+                        .collect(Collectors.toSet()));
+        ReflectionTestUtils.setField(retentionService, "shardedRepository", shardedRepository);
+        ReflectionTestUtils.setField(retentionService, "chunkSize", 2);
+
+        // When
+        long deleted = retentionService.deleteOrphanedContent(LocalDateTime.now().minusDays(30));
+
+        // Then: the referenced pair fills the first chunk without stopping the walk
+        assertEquals(1, deleted);
+        assertEquals(List.of("hash-a", "hash-b"), jdbcTemplate.queryForList(
+                "SELECT content_hash FROM notification_contents ORDER BY content_hash", String.class));
+    }
+
+    @Test
+    void testNothingToDelete() {
+        assertEquals(0, retentionService.deleteInChunks(LocalDateTime.now().minusDays(30)));
+    }
+}
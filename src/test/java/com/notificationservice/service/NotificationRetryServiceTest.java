@@ -0,0 +1,174 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.model.dto.EmailNotificationRequest;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.repository.NotificationDetailRepository;
+import com.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for NotificationRetryService against H2
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class NotificationRetryServiceTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationDetailRepository detailRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private EmailService emailService;
+
+    private NotificationStatsService statsService;
+
+    private NotificationDetailService detailService;
+
+    private NotificationRetryService retryService;
+
+    @BeforeEach
+    void setUp() {
+        emailService = mock(EmailService.class);
+        statsService = mock(NotificationStatsService.class);
+
+        detailService = new NotificationDetailService();
+        ReflectionTestUtils.setField(detailService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(detailService, "detailRepository", detailRepository);
+        ReflectionTestUtils.setField(detailService, "contentStore", mock(NotificationContentStore.class));
+
+        retryService = new NotificationRetryService();
+        ReflectionTestUtils.setField(retryService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(retryService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(retryService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(retryService, "detailService", detailService);
+        ReflectionTestUtils.setField(retryService, "statsService", statsService);
+        ReflectionTestUtils.setField(retryService, "recentCache", mock(RecentNotificationCache.class));
+        ReflectionTestUtils.setField(retryService, "emailService", emailService);
+        ReflectionTestUtils.setField(retryService, "webSocketService", mock(WebSocketService.class));
+        ReflectionTestUtils.setField(retryService, "queueService", mock(QueueService.class));
+        ReflectionTestUtils.setField(retryService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(retryService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(retryService, "enabled", true);
+        ReflectionTestUtils.setField(retryService, "batchSize", 10);
+        ReflectionTestUtils.setField(retryService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retryService, "initialBackoffMs", 1000L);
+        ReflectionTestUtils.setField(retryService, "maxBackoffMs", 60000L);
+        ReflectionTestUtils.setField(retryService, "leaseMs", 300000L);
+        retryService.init();
+    }
+
+    private Notification saveDueFailure(int attempts) {
+        EmailNotificationRequest request = new EmailNotificationRequest();
+        request.setTo("a@example.com");
+        request.setSubject("Welcome");
+        request.setBody("Hello");
+
+        Notification notification = new Notification(NotificationType.EMAIL, "a@example.com", "Welcome", NotificationStatus.FAILED);
+        retryService.schedule(notification, request, new RuntimeException("SMTP unavailable"));
+        notification.setAttempts(attempts);
+        notification.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        detailService.saveAll(List.of(notification));
+        notificationRepository.flush();
+        return notification;
+    }
+
+    private Map<String, Object> row(Long id) {
+        return jdbcTemplate.queryForMap("SELECT status, attempts, next_attempt_at FROM notifications WHERE id = ?", id);
+    }
+
+    private static NotificationStatus status(Map<String, Object> row) {
+        return NotificationStatus.fromCode(((Number) row.get("STATUS")).intValue());
+    }
+
+    @Test
+    void testDueFailureRedelivered() {
+        // Given
+        Notification notification = saveDueFailure(1);
+
+        // When
+        int claimed = retryService.retryBatch();
+
+        // Then
+        assertEquals(1, claimed);
+        verify(emailService).sendEmail(any(EmailNotificationRequest.class));
+        verify(statsService).transition(any(Notification.class), any());
+        Map<String, Object> row = row(notification.getId());
+        assertEquals(NotificationStatus.SENT, status(row));
+        assertEquals(2, row.get("ATTEMPTS"));
+        assertNull(row.get("NEXT_ATTEMPT_AT"));
+    }
+
+    @Test
+    void testFailedRetryBacksOff() {
+        // Given
+        Notification notification = saveDueFailure(1);
+        doThrow(new RuntimeException("Still down")).when(emailService).sendEmail(any());
+
+        // When
+        retryService.retryBatch();
+
+        // Then
+        Map<String, Object> row = row(notification.getId());
+        assertEquals(NotificationStatus.FAILED, status(row));
+        assertEquals(2, row.get("ATTEMPTS"));
+        assertTrue(((Timestamp) row.get("NEXT_ATTEMPT_AT")).toLocalDateTime().isAfter(LocalDateTime.now()));
+        assertEquals("Still down", jdbcTemplate.queryForObject(
+                "SELECT error_message FROM notification_details WHERE notification_id = ?", String.class, notification.getId()));
+        assertEquals(0, retryService.retryBatch()); // not due yet
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        // Given
+        Notification notification = saveDueFailure(2);
+        doThrow(new RuntimeException("Still down")).when(emailService).sendEmail(any());
+
+        // When
+        retryService.retryBatch();
+
+        // Then
+        Map<String, Object> row = row(notification.getId());
+        assertEquals(3, row.get("ATTEMPTS"));
+        assertNull(row.get("NEXT_ATTEMPT_AT"));
+    }
+
+    @Test
+    void testBackoffGrowsAndIsCapped() {
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            long expected = Math.min(60000L, 1000L << (attempt - 1));
+            long backoff = retryService.backoffMillis(attempt);
+            assertTrue(backoff >= expected / 2 && backoff <= expected, "attempt " + attempt + ": " + backoff);
+        }
+    }
+}
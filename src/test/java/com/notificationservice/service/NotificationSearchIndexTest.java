@@ -0,0 +1,191 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.repository.NotificationContentRepository;
+import com.notificationservice.repository.NotificationDetailRepository;
+import com.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for NotificationSearchIndex against H2 and a temporary index directory
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class NotificationSearchIndexTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationDetailRepository detailRepository;
+
+    @Autowired
+    private NotificationContentRepository contentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @TempDir
+    Path indexDirectory;
+
+    private NotificationContentStore contentStore;
+
+    private NotificationDetailService detailService;
+
+    private final List<NotificationSearchIndex> indexes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        contentStore = new NotificationContentStore();
+        ReflectionTestUtils.setField(contentStore, "contentRepository", contentRepository);
+        ReflectionTestUtils.setField(contentStore, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(contentStore, "enabled", true);
+        ReflectionTestUtils.setField(contentStore, "compressThresholdBytes", 64);
+        ReflectionTestUtils.setField(contentStore, "knownHashTtlMillis", 60000L);
+        ReflectionTestUtils.setField(contentStore, "cacheSize", 100);
+
+        detailService = new NotificationDetailService();
+        ReflectionTestUtils.setField(detailService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(detailService, "detailRepository", detailRepository);
+        ReflectionTestUtils.setField(detailService, "contentStore", contentStore);
+    }
+
+    @AfterEach
+    void tearDown() {
+        indexes.forEach(NotificationSearchIndex::shutdown);
+    }
+
+    private NotificationSearchIndex newIndex() throws Exception {
+        NotificationSearchIndex index = new NotificationSearchIndex();
+        ReflectionTestUtils.setField(index, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(index, "detailService", detailService);
+        ReflectionTestUtils.setField(index, "contentStore", contentStore);
+        ReflectionTestUtils.setField(index, "dataSource", dataSource);
+        ReflectionTestUtils.setField(index, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "directory", indexDirectory.toString());
+        ReflectionTestUtils.setField(index, "queueCapacity", 1000);
+        ReflectionTestUtils.setField(index, "flushDocs", 1000);
+        ReflectionTestUtils.setField(index, "flushIntervalMs", 60000L);
+        ReflectionTestUtils.setField(index, "mergeFactor", 2);
+        ReflectionTestUtils.setField(index, "maxMergeDocs", 1000);
+        ReflectionTestUtils.setField(index, "maxCandidates", 100);
+        ReflectionTestUtils.setField(index, "catchUp", false);
+        ReflectionTestUtils.setField(index, "reconcileIntervalMs", 300000L);
+        ReflectionTestUtils.setField(index, "reconcileWindowMs", 900000L);
+        index.init();
+        indexes.add(index);
+        return index;
+    }
+
+    private List<Notification> save(Notification... notifications) {
+        List<Notification> batch = List.of(notifications);
+        contentStore.externalize(batch);
+        detailService.saveAll(batch);
+        notificationRepository.flush();
+        return batch;
+    }
+
+    @Test
+    void testPhraseSearchWithFilters() throws Exception {
+        // Given
+        NotificationSearchIndex index = newIndex();
+        List<Notification> saved = save(
+                new Notification(NotificationType.EMAIL, "a@example.com", "Your refund for order 1234 was issued", NotificationStatus.SENT),
+                new Notification(NotificationType.EMAIL, "a@example.com", "Order 1234 refund pending review", NotificationStatus.SENT),
+                new Notification(NotificationType.QUEUE, "b@example.com", "ORDER: refund for order 1234 was issued", NotificationStatus.QUEUED));
+        index.add(saved);
+
+        // When
+        index.indexPending();
+        List<Notification> phrase = index.search("Refund for order 1234", null, null, null, null, 10);
+        List<Notification> filtered = index.search("refund", "a@example.com", "EMAIL", null, null, 10);
+        List<Notification> future = index.search("refund", null, null, LocalDateTime.now().plusDays(1), null, 10);
+
+        // Then: the second row has the words but not the phrase
+        assertEquals(List.of(saved.get(2).getId(), saved.get(0).getId()), phrase.stream().map(Notification::getId).toList());
+        assertEquals("ORDER: refund for order 1234 was issued", phrase.get(0).getContent());
+        assertEquals(2, filtered.size());
+        assertTrue(future.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> index.search(" ?! ", null, null, null, null, 10));
+    }
+
+    @Test
+    void testSegmentsPersistAndMerge() throws Exception {
+        // Given: three flushed segments with a merge factor of two
+        NotificationSearchIndex index = newIndex();
+        for (String word : List.of("alpha", "bravo", "charlie")) {
+            index.add(save(new Notification(NotificationType.EMAIL, "a@example.com", "Password reset " + word, NotificationStatus.SENT)));
+            index.indexPending();
+            index.flush();
+        }
+
+        // When
+        index.mergeIfNeeded();
+        index.shutdown();
+        NotificationSearchIndex reopened = newIndex();
+
+        // Then
+        assertEquals(3, reopened.docCount());
+        assertTrue(reopened.sizeInBytes() > 0);
+        assertEquals(3, reopened.search("password reset", null, null, null, null, 10).size());
+        assertEquals(1, reopened.search("bravo", null, null, null, null, 10).size());
+    }
+
+    @Test
+    void testCatchUpIndexesRowsFromDatabase() throws Exception {
+        // Given: rows written while the index was not running
+        save(new Notification(NotificationType.WEBSOCKET, "c@example.com", "Build 42 deployed to staging", NotificationStatus.SENT));
+        NotificationSearchIndex index = newIndex();
+
+        // When
+        long caughtUp = index.catchUp();
+
+        // Then
+        assertEquals(1, caughtUp);
+        assertEquals(1, index.search("deployed to staging", null, null, null, null, 10).size());
+    }
+
+    @Test
+    void testReconcileIndexesRowsThisNodeNeverQueued() throws Exception {
+        // Given: one row written through this node, one written by another node
+        NotificationSearchIndex index = newIndex();
+        index.add(save(new Notification(NotificationType.EMAIL, "a@example.com", "Invoice 7 is ready", NotificationStatus.SENT)));
+        index.indexPending();
+        save(new Notification(NotificationType.EMAIL, "b@example.com", "Invoice 8 is ready", NotificationStatus.SENT));
+
+        // When
+        long first = index.reconcile();
+        long second = index.reconcile();
+
+        // Then
+        assertEquals(1, first);
+        assertEquals(0, second);
+        assertEquals(2, index.docCount());
+        assertEquals(2, index.search("is ready", null, null, null, null, 10).size());
+    }
+}
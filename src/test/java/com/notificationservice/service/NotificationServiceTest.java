@@ -3,7 +3,6 @@ package com.notificationservice.service;
 import com.notificationservice.model.dto.EmailNotificationRequest;
 import com.notificationservice.model.dto.QueueNotificationRequest;
 import com.notificationservice.model.dto.RealtimeNotificationRequest;
-import com.notificationservice.repository.NotificationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,7 +22,7 @@ import static org.mockito.Mockito.*;
 class NotificationServiceTest {
 
     @Mock
-    private EmailService emailService;
+    private EmailDispatchService emailDispatchService;
 
     @Mock
     private WebSocketService webSocketService;
@@ -32,7 +31,13 @@ class NotificationServiceTest {
     private QueueService queueService;
 
     @Mock
-    private NotificationRepository notificationRepository;
+    private NotificationAuditWriter auditWriter;
+
+    @Mock
+    private NotificationRetryService retryService;
+
+    @Mock
+    private NotificationOutboxService outboxService;
 
     @InjectMocks
     private NotificationService notificationService;
@@ -51,13 +56,11 @@ class NotificationServiceTest {
         request.setBody("Test Body");
 
         // When
-        doNothing().when(emailService).sendEmail(any(EmailNotificationRequest.class));
-        when(notificationRepository.save(any())).thenReturn(null);
-
-        // Then
         assertDoesNotThrow(() -> notificationService.sendEmailNotification(request));
-        verify(emailService).sendEmail(request);
-        verify(notificationRepository).save(any());
+
+        // Then: recorded PENDING by the dispatcher, which writes the outcome itself
+        verify(emailDispatchService).submit(request);
+        verify(auditWriter, never()).enqueue(any());
     }
 
     @Test
@@ -69,13 +72,12 @@ class NotificationServiceTest {
         request.setBody("Test Body");
 
         // When
-        doThrow(new RuntimeException("Email sending failed")).when(emailService).sendEmail(any(EmailNotificationRequest.class));
-        when(notificationRepository.save(any())).thenReturn(null);
+        doThrow(new RuntimeException("Database unavailable")).when(emailDispatchService).submit(any(EmailNotificationRequest.class));
 
         // Then
         assertThrows(RuntimeException.class, () -> notificationService.sendEmailNotification(request));
-        verify(emailService).sendEmail(request);
-        verify(notificationRepository, times(2)).save(any()); // Once for failure record
+        verify(emailDispatchService).submit(request);
+        verify(auditWriter, times(1)).enqueue(any()); // Once for failure record
     }
 
     @Test
@@ -87,12 +89,11 @@ class NotificationServiceTest {
 
         // When
         doNothing().when(webSocketService).sendNotification(anyString(), anyString());
-        when(notificationRepository.save(any())).thenReturn(null);
 
         // Then
         assertDoesNotThrow(() -> notificationService.sendRealtimeNotification(request));
         verify(webSocketService).sendNotification(request.getTopic(), request.getMessage());
-        verify(notificationRepository).save(any());
+        verify(auditWriter).enqueue(any());
     }
 
     @Test
@@ -104,12 +105,11 @@ class NotificationServiceTest {
         request.setMessage("Test message");
 
         // When
-        doNothing().when(queueService).sendToQueue(any(QueueNotificationRequest.class));
-        when(notificationRepository.save(any())).thenReturn(null);
-
-        // Then
         assertDoesNotThrow(() -> notificationService.sendQueueNotification(request));
-        verify(queueService).sendToQueue(request);
-        verify(notificationRepository).save(any());
+
+        // Then: recorded through the outbox, not published on the request thread
+        verify(outboxService).enqueue(request);
+        verify(queueService, never()).sendToQueue(any());
+        verify(auditWriter, never()).enqueue(any());
     }
 }
\ No newline at end of file
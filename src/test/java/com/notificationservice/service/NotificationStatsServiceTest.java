@@ -0,0 +1,121 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.repository.NotificationStatsHourlyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for NotificationStatsService counters and rollups against H2
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class NotificationStatsServiceTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationStatsHourlyRepository statsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private NotificationStatsService newStatsService() {
+        NotificationStatsService statsService = new NotificationStatsService();
+        ReflectionTestUtils.setField(statsService, "statsRepository", statsRepository);
+        ReflectionTestUtils.setField(statsService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(statsService, "transactionTemplate", transactionTemplate);
+        statsService.init();
+        return statsService;
+    }
+
+    @Test
+    void testLiveCountsSurviveFlushAndRestart() {
+        // Given
+        NotificationStatsService statsService = newStatsService();
+        statsService.record(notification(NotificationType.EMAIL, NotificationStatus.SENT, HOUR.plusMinutes(5)));
+        statsService.record(notification(NotificationType.EMAIL, NotificationStatus.SENT, HOUR.plusMinutes(50)));
+        statsService.record(notification(NotificationType.EMAIL, NotificationStatus.FAILED, HOUR.plusHours(1)));
+
+        // When
+        long beforeFlush = statsService.countByStatus("SENT");
+        statsService.flush();
+        NotificationStatsService restarted = newStatsService();
+
+        // Then
+        assertEquals(2, beforeFlush);
+        assertEquals(2, statsService.countByStatus("SENT"));
+        assertEquals(2, restarted.countByStatus("SENT"));
+        assertEquals(1, restarted.totals().get("EMAIL").get("FAILED"));
+    }
+
+    @Test
+    void testRangeCountCombinesRollupsAndPendingDeltas() {
+        // Given
+        NotificationStatsService statsService = newStatsService();
+        statsService.record(notification(NotificationType.EMAIL, NotificationStatus.SENT, HOUR.plusMinutes(5)));
+        statsService.flush();
+        statsService.record(notification(NotificationType.EMAIL, NotificationStatus.SENT, HOUR.plusMinutes(10)));
+        statsService.record(notification(NotificationType.EMAIL, NotificationStatus.FAILED, HOUR.plusHours(3)));
+
+        // When & Then
+        assertEquals(2, statsService.countByTypeAndRange("EMAIL", "SENT", HOUR, HOUR.plusHours(1)));
+        assertEquals(3, statsService.countByTypeAndRange("EMAIL", null, HOUR, HOUR.plusHours(4)));
+        assertEquals(0, statsService.countByTypeAndRange("QUEUE", null, HOUR, HOUR.plusHours(4)));
+    }
+
+    @Test
+    void testTransitionMovesCount() {
+        // Given
+        NotificationStatsService statsService = newStatsService();
+        Notification notification = notification(NotificationType.EMAIL, NotificationStatus.PENDING, HOUR);
+        statsService.record(notification);
+
+        // When
+        notification.setStatus(NotificationStatus.SENT);
+        statsService.transition(notification, NotificationStatus.PENDING);
+
+        // Then
+        assertEquals(0, statsService.countByStatus("PENDING"));
+        assertEquals(1, statsService.countByStatus("SENT"));
+    }
+
+    @Test
+    void testExistingNotificationsBackfilledOnFirstStart() {
+        // Given
+        notificationRepository.save(notification(NotificationType.QUEUE, NotificationStatus.QUEUED, HOUR.plusMinutes(1)));
+        notificationRepository.save(notification(NotificationType.QUEUE, NotificationStatus.QUEUED, HOUR.plusMinutes(2)));
+        notificationRepository.flush();
+
+        // When
+        NotificationStatsService statsService = newStatsService();
+
+        // Then
+        assertEquals(2, statsService.countByStatus("QUEUED"));
+        assertEquals(2, statsService.countByTypeAndRange("QUEUE", "QUEUED", HOUR, HOUR.plusHours(1)));
+    }
+
+    private Notification notification(NotificationType type, NotificationStatus status, LocalDateTime createdAt) {
+        Notification notification = new Notification(type, "test@example.com", "Hello", status);
+        notification.setCreatedAt(createdAt);
+        return notification;
+    }
+}
@@ -0,0 +1,127 @@
+package com.notificationservice.service;
+
+import com.notificationservice.exception.GlobalExceptionHandler;
+import com.notificationservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for PasswordHashingService
+ */
+@ExtendWith(MockitoExtension.class)
+class PasswordHashingServiceTest {
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PasswordHashingService hashingService;
+
+    @BeforeEach
+    void setUp() {
+        hashingService = new PasswordHashingService();
+        ReflectionTestUtils.setField(hashingService, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(hashingService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(hashingService, "bcryptStrength", 10);
+        ReflectionTestUtils.setField(hashingService, "threads", 1);
+        ReflectionTestUtils.setField(hashingService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(hashingService, "retryAfterSeconds", 2L);
+        hashingService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingService.shutdown();
+    }
+
+    @Test
+    void testHashingRunsOnTheHashingExecutor() {
+        // Given
+        AtomicReference<String> hashThread = new AtomicReference<>();
+        when(passwordEncoder.matches("secret", "hash")).thenAnswer(invocation -> {
+            hashThread.set(Thread.currentThread().getName());
+            return true;
+        });
+
+        // When
+        boolean matches = hashingService.matches("secret", "hash");
+
+        // Then
+        assertTrue(matches);
+        assertEquals("password-hash-1", hashThread.get());
+    }
+
+    @Test
+    void testFullQueueIsRejectedWithRetryAfter() throws Exception {
+        // Given: one worker busy and one request queued behind it
+        CountDownLatch workerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+            workerBusy.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return "hash";
+        });
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hashingService.encode("first"));
+        assertTrue(workerBusy.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hashingService.encode("second"));
+        waitForQueueDepth(1);
+
+        // When
+        TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class,
+                () -> hashingService.encode("third"));
+
+        // Then
+        assertEquals(2, rejected.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("auth.password.rejected").counter().count());
+
+        ResponseEntity<Map<String, Object>> response = new GlobalExceptionHandler().handleTooManyRequestsException(
+                rejected, new ServletWebRequest(new MockHttpServletRequest("POST", "/api/auth/login")));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testNeedsRehashComparesCost() {
+        assertFalse(hashingService.needsRehash("$2a$10$8.UnVuG9HHgffUDAlk8qfOuVGkqRzgVymGe07xd00DMxs.AQubh4a"));
+        assertTrue(hashingService.needsRehash("$2a$12$8.UnVuG9HHgffUDAlk8qfOuVGkqRzgVymGe07xd00DMxs.AQubh4a"));
+        assertFalse(hashingService.needsRehash(null));
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (hashingService.queueDepth() < depth && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(depth, hashingService.queueDepth());
+    }
+}
@@ -0,0 +1,116 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.dto.NotificationSummary;
+import com.notificationservice.model.entity.Notification;
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import com.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for RecentNotificationCache against H2
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class RecentNotificationCacheTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RecentNotificationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new RecentNotificationCache();
+        ReflectionTestUtils.setField(cache, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "perRecipient", 3);
+        ReflectionTestUtils.setField(cache, "maxRecipients", 2);
+        ReflectionTestUtils.setField(cache, "ttlMillis", 60000L);
+        cache.init();
+    }
+
+    private Notification save(String recipient, NotificationStatus status, int minutesAgo) {
+        Notification notification = new Notification(NotificationType.EMAIL, recipient, "Hello", status);
+        notification.setCreatedAt(LocalDateTime.now().minusMinutes(minutesAgo));
+        return notificationRepository.saveAndFlush(notification);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.counter("notification.recent.cache", "result", result).count();
+    }
+
+    @Test
+    void testSecondReadServedFromMemory() {
+        // Given
+        Notification older = save("a@example.com", NotificationStatus.SENT, 10);
+        Notification newer = save("a@example.com", NotificationStatus.SENT, 5);
+        save("b@example.com", NotificationStatus.SENT, 1);
+
+        // When
+        cache.recent("a@example.com", 10);
+        List<NotificationSummary> recent = cache.recent("a@example.com", 10);
+
+        // Then
+        assertEquals(List.of(newer.getId(), older.getId()), recent.stream().map(NotificationSummary::getId).toList());
+        assertEquals(1, lookups("miss"));
+        assertEquals(1, lookups("hit"));
+    }
+
+    @Test
+    void testWritesAndStatusChangesAppliedToCachedRecipient() {
+        // Given
+        save("a@example.com", NotificationStatus.SENT, 30);
+        save("a@example.com", NotificationStatus.SENT, 20);
+        Notification pending = save("a@example.com", NotificationStatus.PENDING, 10);
+        cache.recent("a@example.com", 10);
+
+        // When
+        Notification latest = save("a@example.com", NotificationStatus.PENDING, 0);
+        cache.record(latest);
+        pending.setStatus(NotificationStatus.FAILED);
+        cache.update(pending);
+        List<NotificationSummary> recent = cache.recent("a@example.com", 10);
+
+        // Then: newest first, trimmed to per-recipient, and no extra database read
+        assertEquals(3, recent.size());
+        assertEquals(latest.getId(), recent.get(0).getId());
+        assertEquals(NotificationStatus.FAILED, recent.get(1).getStatus());
+        assertEquals(1, lookups("miss"));
+    }
+
+    @Test
+    void testLeastRecentlyReadRecipientEvicted() {
+        // Given
+        save("a@example.com", NotificationStatus.SENT, 1);
+        save("b@example.com", NotificationStatus.SENT, 1);
+        save("c@example.com", NotificationStatus.SENT, 1);
+        cache.recent("a@example.com", 10);
+        cache.recent("b@example.com", 10);
+        cache.recent("a@example.com", 10);
+
+        // When
+        cache.recent("c@example.com", 10);
+        cache.recent("b@example.com", 10);
+
+        // Then: b was evicted by c, a stayed because it was read more recently
+        assertEquals(2, cache.size());
+        assertEquals(4, lookups("miss"));
+        assertEquals(1, lookups("hit"));
+    }
+}
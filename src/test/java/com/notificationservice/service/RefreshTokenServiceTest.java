@@ -0,0 +1,98 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.RefreshToken;
+import com.notificationservice.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RefreshTokenService
+ */
+class RefreshTokenServiceTest {
+
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        refreshTokenService = new RefreshTokenService();
+        ReflectionTestUtils.setField(refreshTokenService, "refreshTokenRepository", refreshTokenRepository);
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpiration", 3600L);
+    }
+
+    @Test
+    void testIssueStoresOnlyHash() {
+        // When
+        String rawToken = refreshTokenService.issue("alice");
+
+        // Then
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertNotEquals(rawToken, captor.getValue().getTokenHash());
+        assertEquals(RefreshTokenService.hash(rawToken), captor.getValue().getTokenHash());
+        assertEquals("alice", captor.getValue().getUsername());
+    }
+
+    @Test
+    void testRotateIssuesSuccessorInSameFamily() {
+        // Given
+        RefreshToken stored = storedToken("family-1", null);
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("raw"))).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.markUsed(anyLong(), any())).thenReturn(1);
+
+        // When
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw");
+
+        // Then
+        assertEquals("alice", rotation.username());
+        assertNotEquals("raw", rotation.refreshToken());
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertEquals("family-1", captor.getValue().getFamilyId());
+    }
+
+    @Test
+    void testReuseRevokesFamily() {
+        // Given
+        RefreshToken stored = storedToken("family-1", LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("raw"))).thenReturn(Optional.of(stored));
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> refreshTokenService.rotate("raw"));
+        verify(refreshTokenRepository).revokeFamily("family-1");
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void testUnknownTokenRejected() {
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> refreshTokenService.rotate("unknown"));
+    }
+
+    private RefreshToken storedToken(String familyId, LocalDateTime usedAt) {
+        RefreshToken token = new RefreshToken("hash", familyId, "alice", LocalDateTime.now().plusHours(1));
+        token.setId(1L);
+        token.setUsedAt(usedAt);
+        return token;
+    }
+}
@@ -0,0 +1,119 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.RevokedToken;
+import com.notificationservice.repository.RevokedTokenRepository;
+import com.notificationservice.util.JwtTokenCache;
+import com.notificationservice.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for TokenRevocationService
+ */
+class TokenRevocationServiceTest {
+
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private JwtUtil jwtUtil;
+
+    private JwtTokenCache jwtTokenCache;
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "testSecretKeyThatIsLongEnoughForHS256AlgorithmInTesting");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3600L);
+        jwtUtil.init();
+
+        jwtTokenCache = new JwtTokenCache();
+        ReflectionTestUtils.setField(jwtTokenCache, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(jwtTokenCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(jwtTokenCache, "maxSize", 100);
+        jwtTokenCache.init();
+
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of(
+                new RevokedToken("loaded-jti", "bob", LocalDateTime.now().plusHours(1))));
+
+        revocationService = new TokenRevocationService();
+        ReflectionTestUtils.setField(revocationService, "revokedTokenRepository", revokedTokenRepository);
+        ReflectionTestUtils.setField(revocationService, "jwtTokenCache", jwtTokenCache);
+        ReflectionTestUtils.setField(revocationService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(revocationService, "expectedRevocations", 1000L);
+        ReflectionTestUtils.setField(revocationService, "falsePositiveProbability", 0.001);
+        revocationService.init();
+    }
+
+    @Test
+    void testRevokedTokenIsRejected() {
+        // Given
+        String token = jwtUtil.generateToken("alice");
+        String jti = jwtUtil.extractAllClaims(token).getId();
+        assertNotNull(jti);
+        assertFalse(revocationService.isRevoked(jti));
+
+        // When
+        revocationService.revoke(token);
+
+        // Then
+        assertTrue(revocationService.isRevoked(jti));
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void testRevocationsLoadedAtStartup() {
+        assertTrue(revocationService.isRevoked("loaded-jti"));
+        assertFalse(revocationService.isRevoked("other-jti"));
+        assertFalse(revocationService.isRevoked(null));
+    }
+
+    @Test
+    void testSyncPicksUpOtherNodesRevocations() {
+        // Given
+        when(revokedTokenRepository.findByRevokedAtAfter(any())).thenReturn(List.of(
+                new RevokedToken("remote-jti", "carol", LocalDateTime.now().plusHours(1))));
+
+        // When
+        revocationService.sync();
+
+        // Then
+        assertTrue(revocationService.isRevoked("remote-jti"));
+        verify(revokedTokenRepository, never()).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void testExpiredRevocationsArePurged() {
+        // Given
+        when(revokedTokenRepository.findByRevokedAtAfter(any())).thenReturn(List.of(
+                new RevokedToken("expired-jti", "dave", LocalDateTime.now().minusMinutes(1))));
+        revocationService.sync();
+        assertEquals(2, revocationService.size());
+
+        // When
+        revocationService.purgeExpired();
+
+        // Then
+        assertFalse(revocationService.isRevoked("expired-jti"));
+        assertTrue(revocationService.isRevoked("loaded-jti"));
+        verify(revokedTokenRepository).deleteExpired(any());
+    }
+}
@@ -0,0 +1,153 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.User;
+import com.notificationservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the local backend of UserCache
+ */
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache();
+        ReflectionTestUtils.setField(userCache, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userCache, "backend", "local");
+        ReflectionTestUtils.setField(userCache, "ttlMillis", 60000L);
+        ReflectionTestUtils.setField(userCache, "maxSize", 100);
+    }
+
+    @Test
+    void testFoundUserIsServedFromMemory() {
+        // Given
+        User alice = new User("alice", "hash", "alice@example.com");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+
+        // When
+        userCache.findByUsername("alice");
+        Optional<User> cached = userCache.findByUsername("alice");
+
+        // Then
+        assertSame(alice, cached.orElseThrow());
+        verify(userRepository, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void testMissingUserIsNotCached() {
+        // Given
+        when(userRepository.findByUsername("nobody")).thenReturn(Optional.empty());
+
+        // When
+        userCache.findByUsername("nobody");
+        userCache.findByUsername("nobody");
+
+        // Then
+        verify(userRepository, times(2)).findByUsername("nobody");
+        assertEquals(0, userCache.size());
+    }
+
+    @Test
+    void testConcurrentMissesShareOneQuery() throws Exception {
+        // Given: the first query is held until every caller is waiting on it
+        User alice = new User("alice", "hash", "alice@example.com");
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findByUsername("alice")).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return Optional.of(alice);
+        });
+
+        // When
+        List<CompletableFuture<Optional<User>>> lookups = new ArrayList<>();
+        lookups.add(CompletableFuture.supplyAsync(() -> userCache.findByUsername("alice")));
+        assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++) {
+            lookups.add(CompletableFuture.supplyAsync(() -> userCache.findByUsername("alice")));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        // Then
+        for (CompletableFuture<Optional<User>> lookup : lookups) {
+            assertSame(alice, lookup.get(5, TimeUnit.SECONDS).orElseThrow());
+        }
+        verify(userRepository, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void testWaitersSeeTheLoaderFailure() throws Exception {
+        // Given
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findByUsername("alice")).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            throw new IllegalStateException("Database unavailable");
+        });
+        CompletableFuture<Optional<User>> loader = CompletableFuture.supplyAsync(() -> userCache.findByUsername("alice"));
+        assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+
+        // When
+        CompletableFuture<Optional<User>> waiter = CompletableFuture.supplyAsync(() -> userCache.findByUsername("alice"));
+        Thread.sleep(100);
+        release.countDown();
+
+        // Then
+        Exception loaderError = assertThrows(Exception.class, () -> loader.get(5, TimeUnit.SECONDS));
+        Exception waiterError = assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertTrue(loaderError.getCause() instanceof IllegalStateException);
+        assertTrue(waiterError.getCause() instanceof IllegalStateException);
+        assertEquals(0, userCache.size());
+    }
+
+    @Test
+    void testInvalidateDuringLoadKeepsTheStaleUserOut() throws Exception {
+        // Given: a write lands while the read is in flight
+        User stale = new User("alice", "old-hash", "alice@example.com");
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findByUsername("alice")).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return Optional.of(stale);
+        });
+        CompletableFuture<Optional<User>> loader = CompletableFuture.supplyAsync(() -> userCache.findByUsername("alice"));
+        assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+
+        // When
+        userCache.invalidate("alice");
+        release.countDown();
+        loader.get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(0, userCache.size());
+    }
+}
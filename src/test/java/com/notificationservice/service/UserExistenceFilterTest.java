@@ -0,0 +1,117 @@
+package com.notificationservice.service;
+
+import com.notificationservice.model.entity.User;
+import com.notificationservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for UserExistenceFilter against H2
+ * <p>
+ * Not transactional: the filter is built on its own thread and must see committed users.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserExistenceFilterTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UserRepository repository;
+
+    private UserExistenceFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.saveAndFlush(new User("alice", "hash", "alice@example.com"));
+        userRepository.saveAndFlush(new User("bob", "hash", "bob@example.com"));
+        userRepository.saveAndFlush(new User("carol", "hash", null));
+
+        repository = mock(UserRepository.class, delegatesTo(userRepository));
+        filter = new UserExistenceFilter();
+        ReflectionTestUtils.setField(filter, "userRepository", repository);
+        ReflectionTestUtils.setField(filter, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "targetFalsePositiveRate", 0.0001);
+        ReflectionTestUtils.setField(filter, "minCapacity", 1000L);
+        ReflectionTestUtils.setField(filter, "chunkSize", 2);
+        filter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        filter.shutdown();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testLookupsGoToTheDatabaseUntilTheFilterIsBuilt() {
+        // When
+        boolean exists = filter.usernameExists("nobody");
+
+        // Then
+        assertFalse(exists);
+        verify(repository).existsByUsername("nobody");
+    }
+
+    @Test
+    void testStartupBuildLoadsEveryChunk() throws InterruptedException {
+        // When
+        filter.onApplicationReady();
+        awaitBuilt();
+
+        // Then: present users are confirmed by the database, absent ones never reach it
+        assertTrue(filter.usernameExists("carol"));
+        assertTrue(filter.emailExists("bob@example.com"));
+        assertFalse(filter.usernameExists("nobody"));
+        assertFalse(filter.emailExists("nobody@example.com"));
+        verify(repository).existsByUsername("carol");
+        verify(repository, never()).existsByUsername("nobody");
+        verify(repository, never()).existsByEmail("nobody@example.com");
+    }
+
+    @Test
+    void testPositiveFromTheFilterIsCheckedAgainstTheDatabase() throws InterruptedException {
+        // Given: in the filter but not in the table, as a false positive would be
+        filter.onApplicationReady();
+        awaitBuilt();
+        filter.add("ghost", null);
+
+        // When
+        boolean exists = filter.usernameExists("ghost");
+
+        // Then
+        assertFalse(exists);
+        verify(repository).existsByUsername("ghost");
+    }
+
+    private void awaitBuilt() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ReflectionTestUtils.getField(filter, "current") == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(ReflectionTestUtils.getField(filter, "current"), "filter was not built");
+    }
+}
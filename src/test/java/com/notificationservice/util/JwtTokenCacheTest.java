@@ -0,0 +1,95 @@
+package com.notificationservice.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for JwtTokenCache
+ */
+class JwtTokenCacheTest {
+
+    private JwtUtil jwtUtil;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private JwtTokenCache tokenCache;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = spy(new JwtUtil());
+        ReflectionTestUtils.setField(jwtUtil, "secret", "testSecretKeyThatIsLongEnoughForHS256AlgorithmInTesting");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3600L);
+        jwtUtil.init();
+
+        meterRegistry = new SimpleMeterRegistry();
+        tokenCache = new JwtTokenCache();
+        ReflectionTestUtils.setField(tokenCache, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(tokenCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(tokenCache, "maxSize", 2);
+        tokenCache.init();
+    }
+
+    @Test
+    void testTokenParsedOncePerLifetime() {
+        // Given
+        String token = jwtUtil.generateToken("alice");
+
+        // When
+        Claims first = tokenCache.getVerifiedClaims(token);
+        Claims second = tokenCache.getVerifiedClaims(token);
+
+        // Then
+        assertEquals("alice", first.getSubject());
+        assertEquals("alice", second.getSubject());
+        verify(jwtUtil, times(1)).extractAllClaims(anyString());
+        assertEquals(1.0, meterRegistry.get("jwt.token.cache").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("jwt.token.cache").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void testInvalidTokenIsRejectedAndNotCached() {
+        // Given
+        String token = jwtUtil.generateToken("alice") + "tampered";
+
+        // Then
+        assertThrows(JwtException.class, () -> tokenCache.getVerifiedClaims(token));
+        assertThrows(JwtException.class, () -> tokenCache.getVerifiedClaims(token));
+        assertEquals(0, tokenCache.size());
+    }
+
+    @Test
+    void testCacheStaysBounded() {
+        // When
+        tokenCache.getVerifiedClaims(jwtUtil.generateToken("alice"));
+        tokenCache.getVerifiedClaims(jwtUtil.generateToken("bob"));
+        tokenCache.getVerifiedClaims(jwtUtil.generateToken("carol"));
+
+        // Then
+        assertEquals(2, tokenCache.size());
+    }
+
+    @Test
+    void testInvalidateForcesReverification() {
+        // Given
+        String token = jwtUtil.generateToken("alice");
+        tokenCache.getVerifiedClaims(token);
+
+        // When
+        tokenCache.invalidate(token);
+        tokenCache.getVerifiedClaims(token);
+
+        // Then
+        verify(jwtUtil, times(2)).extractAllClaims(anyString());
+    }
+}
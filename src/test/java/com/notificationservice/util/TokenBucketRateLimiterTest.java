@@ -0,0 +1,76 @@
+package com.notificationservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for TokenBucketRateLimiter
+ */
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(SECOND);
+
+    @Test
+    void testBurstUpToCapacityThenReject() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 1.0, 100, clock::get);
+
+        // Then
+        assertEquals(0, limiter.tryAcquire("client"));
+        assertEquals(0, limiter.tryAcquire("client"));
+        assertEquals(0, limiter.tryAcquire("client"));
+        long wait = limiter.tryAcquire("client");
+        assertTrue(wait > 0 && wait <= SECOND, "wait: " + wait);
+    }
+
+    @Test
+    void testTokensRefillOverTime() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 2.0, 100, clock::get);
+        assertEquals(0, limiter.tryAcquire("client"));
+        assertTrue(limiter.tryAcquire("client") > 0);
+
+        // When
+        clock.addAndGet(SECOND / 2);
+
+        // Then
+        assertEquals(0, limiter.tryAcquire("client"));
+    }
+
+    @Test
+    void testKeysAreIndependent() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1.0, 100, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertEquals(0, limiter.tryAcquire("b"));
+    }
+
+    @Test
+    void testIdleKeysAreEvictedToStayBounded() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1.0, 2, clock::get);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+
+        // When - map is full of active keys
+        long rejected = limiter.tryAcquire("c");
+
+        // Then
+        assertTrue(rejected > 0);
+        assertEquals(2, limiter.size());
+
+        // When - buckets refill and become idle
+        clock.addAndGet(2 * SECOND);
+
+        // Then
+        assertEquals(0, limiter.tryAcquire("c"));
+        assertEquals(1, limiter.size());
+    }
+}
@@ -0,0 +1,70 @@
+package db.migration;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests for the migration that moves wide notification columns into notification_details
+ */
+class V10__Split_notification_detailsTest {
+
+    private JdbcDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:split-migration;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        flyway("9").migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testDetailsAreCopiedAcrossChunksAndColumnsDropped() throws Exception {
+        // Given: ids far enough apart to fall into different chunks, one without any details
+        insert(1, "Hello", null, null);
+        insert(15000, null, "abc123", "SMTP unavailable");
+        insert(30000, null, null, null);
+
+        // When
+        flyway("10").migrate();
+
+        // Then
+        List<Map<String, Object>> details = jdbcTemplate.queryForList(
+                "SELECT notification_id, content, content_hash, error_message FROM notification_details ORDER BY notification_id");
+        assertEquals(2, details.size());
+        assertEquals("Hello", details.get(0).get("CONTENT"));
+        assertEquals("abc123", details.get(1).get("CONTENT_HASH"));
+        assertEquals("SMTP unavailable", details.get(1).get("ERROR_MESSAGE"));
+        try (var connection = dataSource.getConnection()) {
+            assertFalse(MigrationSupport.columnExists(connection, "notifications", "content"));
+            assertFalse(MigrationSupport.columnExists(connection, "notifications", "content_hash"));
+            assertFalse(MigrationSupport.columnExists(connection, "notifications", "error_message"));
+        }
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").target(target).load();
+    }
+
+    private void insert(long id, String content, String contentHash, String errorMessage) {
+        jdbcTemplate.update("INSERT INTO notifications (id, type, recipient, status, content, content_hash, error_message) " +
+                "VALUES (?, 'EMAIL', 'a@example.com', 'SENT', ?, ?, ?)", id, content, contentHash, errorMessage);
+    }
+}
@@ -0,0 +1,87 @@
+package db.migration;
+
+import com.notificationservice.model.entity.NotificationStatus;
+import com.notificationservice.model.entity.NotificationType;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the migration that turns notifications.type and status into codes
+ */
+class V15__Encode_notification_type_and_statusTest {
+
+    private JdbcDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:encode-migration;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        flyway("14").migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testExistingRowsAreEncodedAcrossChunks() {
+        // Given: ids far enough apart to fall into different chunks
+        insert(1, "EMAIL", "SENT");
+        insert(15000, "queue", "queued");
+        insert(30000, "WEBSOCKET", "FAILED");
+
+        // When
+        flyway("15").migrate();
+
+        // Then
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT type, status FROM notifications ORDER BY id");
+        assertEquals(NotificationType.EMAIL, NotificationType.fromCode(code(rows.get(0), "TYPE")));
+        assertEquals(NotificationStatus.SENT, NotificationStatus.fromCode(code(rows.get(0), "STATUS")));
+        assertEquals(NotificationType.QUEUE, NotificationType.fromCode(code(rows.get(1), "TYPE")));
+        assertEquals(NotificationStatus.QUEUED, NotificationStatus.fromCode(code(rows.get(1), "STATUS")));
+        assertEquals(NotificationType.WEBSOCKET, NotificationType.fromCode(code(rows.get(2), "TYPE")));
+        assertEquals(NotificationStatus.FAILED, NotificationStatus.fromCode(code(rows.get(2), "STATUS")));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'IDX_NOTIFICATIONS_STATUS_CREATED_ID'",
+                Integer.class));
+    }
+
+    @Test
+    void testUnknownValueFailsBeforeColumnsAreDropped() {
+        // Given
+        insert(1, "EMAIL", "SENT");
+        insert(2, "SMS", "SENT");
+
+        // When / Then
+        assertThrows(FlywayException.class, () -> flyway("15").migrate());
+        assertEquals("SMS", jdbcTemplate.queryForObject("SELECT type FROM notifications WHERE id = 2", String.class));
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").target(target).load();
+    }
+
+    private void insert(long id, String type, String status) {
+        jdbcTemplate.update("INSERT INTO notifications (id, type, recipient, status, created_at) " +
+                "VALUES (?, ?, 'a@example.com', ?, CURRENT_TIMESTAMP)", id, type, status);
+    }
+
+    private static int code(Map<String, Object> row, String column) {
+        return ((Number) row.get(column)).intValue();
+    }
+}